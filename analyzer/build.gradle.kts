@@ -1,5 +1,7 @@
 group = "org.jboss.gm.analyzer"
 
+apply(plugin = "me.champeau.gradle.jmh")
+
 java {
     sourceCompatibility = JavaVersion.VERSION_1_8
 }
@@ -31,6 +33,7 @@ dependencies {
 
     compile("commons-beanutils:commons-beanutils:1.9.3")
     compile("org.commonjava.maven.ext:pom-manipulation-core:${extra.get("pmeVersion")}")
+    compile("org.apache.httpcomponents:httpclient:4.5.8")
     testCompile("junit:junit:4.12")
     testCompile("com.github.stefanbirkner:system-rules:1.19.0")
     testCompile("org.jboss.byteman:byteman:${extra.get("bytemanVersion")}")
@@ -43,6 +46,8 @@ dependencies {
     testCompile("org.assertj:assertj-core:3.12.2")
     testCompile("org.mockito:mockito-core:2.27.0")
     testCompile("com.github.tomakehurst:wiremock-jre8:2.23.2")
+    // benchmarks are run with "gradle :analyzer:jmh" ; gradleApi is only part of the shadow configuration
+    "jmh"(gradleApi())
 }
 
 // separate source set and task for functional tests
@@ -21,6 +21,8 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.gradle.api.Project;
+import org.jboss.byteman.contrib.bmunit.BMRule;
+import org.jboss.byteman.contrib.bmunit.BMUnitRunner;
 import org.jboss.gm.common.Configuration;
 import org.jboss.gm.common.model.ManipulationModel;
 import org.jboss.gm.common.utils.FileUtils;
@@ -31,7 +33,9 @@ import org.junit.contrib.java.lang.system.RestoreSystemProperties;
 import org.junit.contrib.java.lang.system.SystemOutRule;
 import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestRule;
+import org.junit.runner.RunWith;
 
+@RunWith(BMUnitRunner.class)
 public class ComplexProjectFunctionalTest extends AbstractWiremockTest {
 
     @Rule
@@ -65,6 +69,81 @@ public class ComplexProjectFunctionalTest extends AbstractWiremockTest {
         assertEquals(AlignmentTask.INJECT_GME_START, TestUtils.getLine(projectRoot));
         assertEquals(AlignmentTask.INJECT_GME_END, FileUtils.getLastLine(new File(projectRoot, Project.DEFAULT_BUILD_FILE)));
 
+        verifyAlignmentModel(alignmentModel);
+
+        // check that generated settings.xml contains correct remote repositories
+        File settingsFile = new File(projectRoot, "settings.xml");
+        SettingsXpp3Reader reader = new SettingsXpp3Reader();
+        Settings generatedSettings = reader.read(new FileInputStream(settingsFile));
+        List<Repository> repositories = generatedSettings.getProfiles().get(0).getRepositories();
+        assertThat(repositories).extracting("url").containsOnly(
+                "https://repo.maven.apache.org/maven2/",
+                "https://oss.sonatype.org/content/repositories/snapshots/",
+                "https://localhost:8089/ivy-repo",
+                "https://plugins.gradle.org/m2/",
+                "https://dl.google.com/dl/android/maven2/",
+                "https://jcenter.bintray.com/");
+    }
+
+    @Test
+    @BMRule(name = "override-inprocess-configuration",
+            targetClass = "org.jboss.gm.common.Configuration",
+            isInterface = true,
+            targetMethod = "dependencyResolutionThreads()",
+            targetLocation = "AT ENTRY",
+            action = "RETURN 4")
+    public void ensureConcurrentResolutionProducesSameModel() throws IOException, URISyntaxException {
+        final File projectRoot = tempDir.newFolder("complex-project");
+        final ManipulationModel alignmentModel = TestUtils.align(projectRoot, projectRoot.getName());
+
+        verifyAlignmentModel(alignmentModel);
+    }
+
+    @Test
+    @BMRule(name = "override-inprocess-configuration",
+            targetClass = "org.jboss.gm.common.Configuration",
+            isInterface = true,
+            targetMethod = "dependencyResolutionEngine()",
+            targetLocation = "AT ENTRY",
+            action = "RETURN org.jboss.gm.common.Configuration$ResolutionEngine.RESOLUTION_RESULT")
+    public void ensureResolutionResultEngineProducesSameModel() throws IOException, URISyntaxException {
+        final File projectRoot = tempDir.newFolder("complex-project");
+        final ManipulationModel alignmentModel = TestUtils.align(projectRoot, projectRoot.getName());
+
+        verifyAlignmentModel(alignmentModel);
+    }
+
+    @Test
+    @BMRule(name = "override-inprocess-configuration",
+            targetClass = "org.jboss.gm.common.Configuration",
+            isInterface = true,
+            targetMethod = "dependencyResolutionFingerprinting()",
+            targetLocation = "AT ENTRY",
+            action = "RETURN true")
+    public void ensureFingerprintingProducesSameModel() throws IOException, URISyntaxException {
+        final File projectRoot = tempDir.newFolder("complex-project");
+        final ManipulationModel alignmentModel = TestUtils.align(projectRoot, projectRoot.getName());
+
+        verifyAlignmentModel(alignmentModel);
+    }
+
+    @Test
+    @BMRule(name = "override-inprocess-configuration",
+            targetClass = "org.jboss.gm.common.Configuration",
+            isInterface = true,
+            targetMethod = "dependencyResolutionMerged()",
+            targetLocation = "AT ENTRY",
+            action = "RETURN true")
+    public void ensureMergedResolutionProducesSameModel() throws IOException, URISyntaxException {
+        final File projectRoot = tempDir.newFolder("complex-project");
+        final ManipulationModel alignmentModel = TestUtils.align(projectRoot, projectRoot.getName());
+
+        verifyAlignmentModel(alignmentModel);
+        // the spring-boot platform manages versions which a detached configuration would ignore
+        assertThat(systemOutRule.getLog()).contains("project 'complex' separately as configuration");
+    }
+
+    private void verifyAlignmentModel(ManipulationModel alignmentModel) {
         assertThat(alignmentModel).isNotNull().satisfies(am -> {
             assertThat(am.getGroup()).isEqualTo("org.jboss.gm.analyzer.functest");
             assertThat(am.getName()).isEqualTo("complex");
@@ -99,19 +178,6 @@ public class ComplexProjectFunctionalTest extends AbstractWiremockTest {
                         "org.hibernate:hibernate-core:5.3.7.Final");
             });
         });
-
-        // check that generated settings.xml contains correct remote repositories
-        File settingsFile = new File(projectRoot, "settings.xml");
-        SettingsXpp3Reader reader = new SettingsXpp3Reader();
-        Settings generatedSettings = reader.read(new FileInputStream(settingsFile));
-        List<Repository> repositories = generatedSettings.getProfiles().get(0).getRepositories();
-        assertThat(repositories).extracting("url").containsOnly(
-                "https://repo.maven.apache.org/maven2/",
-                "https://oss.sonatype.org/content/repositories/snapshots/",
-                "https://localhost:8089/ivy-repo",
-                "https://plugins.gradle.org/m2/",
-                "https://dl.google.com/dl/android/maven2/",
-                "https://jcenter.bintray.com/");
     }
 
     private String getArtifactId(Tuple tuple) {
@@ -0,0 +1,63 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.model.ManipulationModel;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestRule;
+
+public class DynamicWithPartialLocksProjectFunctionalTest extends AbstractWiremockTest {
+
+    @Rule
+    public final SystemOutRule systemOutRule = new SystemOutRule().enableLog().muteForSuccessfulTests();
+
+    @Rule
+    public final TestRule restoreSystemProperties = new RestoreSystemProperties();
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Before
+    public void setup() throws IOException, URISyntaxException {
+        stubFor(post(urlEqualTo("/da/rest/v-1/reports/lookup/gavs"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse("dynamic-project.with-locks.json"))));
+
+        System.setProperty(Configuration.DA, "http://127.0.0.1:" + AbstractWiremockTest.PORT + "/da/rest/v-1");
+    }
+
+    @Test
+    public void lockedVersionShouldBeUsedByConfigurationsWithoutLockfile()
+            throws IOException, URISyntaxException, ManipulationException {
+        final File projectRoot = tempDir.newFolder("dynamic-project-with-partial-locks");
+        final ManipulationModel alignmentModel = TestUtils.align(projectRoot, projectRoot.getName());
+
+        assertThat(alignmentModel.findCorrespondingChild("rootProject")).satisfies(root -> {
+            // runtimeClasspath, testCompileClasspath and testRuntimeClasspath have no lockfile and are resolved after
+            // compileClasspath: the newest 2.0 release of undertow must not replace the locked version
+            assertThat(root.getAlignedDependencies().values())
+                    .extracting("artifactId", "versionString")
+                    .containsOnly(
+                            tuple("undertow-core", "2.0.21.Final-redhat-00002"),
+                            tuple("resteasy-jaxrs", "3.6.3.SP1-redhat-00010"));
+            assertThat(root.getAlignedDependencies().keySet()).containsOnly(
+                    "io.undertow:undertow-core:2.0+",
+                    "org.jboss.resteasy:resteasy-jaxrs:3.6.3.SP1");
+        });
+    }
+}
@@ -17,7 +17,9 @@ import org.apache.commons.io.FileUtils;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationException;
 import org.gradle.api.Project;
+import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
 import org.jboss.byteman.contrib.bmunit.BMRule;
 import org.jboss.byteman.contrib.bmunit.BMUnitRunner;
 import org.jboss.gm.common.Configuration;
@@ -143,4 +145,22 @@ public class SimpleProjectFunctionalTest extends AbstractWiremockTest {
         assertEquals(1, counter);
     }
 
+    @Test
+    public void ensureDependenciesAreNotCollectedAgainWhenNothingChanged()
+            throws IOException, URISyntaxException {
+        final File projectRoot = tempDir.newFolder("simple-project");
+        TestUtils.align(projectRoot, projectRoot.getName());
+
+        // the first alignment injected lines in build.gradle, settings.gradle and gradle/dummy.gradle
+        final BuildResult buildResult = GradleRunner.create()
+                .withProjectDir(projectRoot)
+                .withArguments("--stacktrace", "--info", AlignmentTask.NAME)
+                .withDebug(true)
+                .forwardOutput()
+                .withPluginClasspath()
+                .build();
+
+        assertThat(buildResult.task(":" + AlignmentTask.NAME).getOutcome()).isEqualTo(TaskOutcome.UP_TO_DATE);
+        assertThat(buildResult.task(":" + AlignmentAggregateTask.NAME).getOutcome()).isEqualTo(TaskOutcome.SUCCESS);
+    }
 }
@@ -58,6 +58,7 @@ public final class TestUtils {
         if (expectFailure) {
             throw new ManipulationUncheckedException(buildResult.getOutput());
         } else {
+            assertThat(buildResult.task(":" + AlignmentAggregateTask.NAME).getOutcome()).isEqualTo(outcome);
             return ManipulationIO.readManipulationModel(projectRoot);
         }
     }
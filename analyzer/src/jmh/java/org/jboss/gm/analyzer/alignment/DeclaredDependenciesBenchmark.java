@@ -0,0 +1,66 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang.StringUtils;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares matching every resolved dependency of a configuration back to its declaration by scanning the declared
+ * dependencies against the {@link DeclaredDependencies} index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeclaredDependenciesBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int size;
+
+    private List<Dependency> declared;
+
+    @Setup
+    public void setup() {
+        declared = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            declared.add(new DefaultExternalModuleDependency("org.group" + (i % 100), "artifact" + i, "1.0." + i));
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (Dependency resolved : declared) {
+            blackhole.consume(declared.stream()
+                    .filter(d -> StringUtils.equals(d.getGroup(), resolved.getGroup()) &&
+                            StringUtils.equals(d.getName(), resolved.getName()))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole blackhole) {
+        final DeclaredDependencies declaredDependencies = new DeclaredDependencies(declared);
+        for (Dependency resolved : declared) {
+            blackhole.consume(declaredDependencies.find(resolved.getGroup(), resolved.getName()));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.jboss.gm.common.versioning.ProjectVersionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares looking up 20000 GAVs in 500 dependency overrides by scanning the overrides against the
+ * {@link ProjectRefIndex} used by {@link DependencyOverrideCustomizer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DependencyOverrideBenchmark {
+
+    private static final int OVERRIDES = 500;
+
+    private static final int GAVS = 20000;
+
+    private Map<ProjectRef, String> overrideMap;
+
+    private List<ProjectVersionRef> gavs;
+
+    @Setup
+    public void setup() {
+        overrideMap = new LinkedHashMap<>();
+        for (int i = 0; i < OVERRIDES; i++) {
+            // mostly exact overrides, with some group wildcards as found in real property files
+            overrideMap.put(new SimpleProjectRef("org.group" + i, i % 10 == 0 ? "*" : "artifact" + i), "1.0.redhat-1");
+        }
+        gavs = new ArrayList<>(GAVS);
+        for (int i = 0; i < GAVS; i++) {
+            gavs.add(ProjectVersionFactory.withGAV("org.group" + (i % 1000), "artifact" + (i % 700), "1.0"));
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (ProjectVersionRef gav : gavs) {
+            blackhole.consume(overrideMap.keySet().stream().filter(p -> p.matches(gav)).findFirst());
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole blackhole) {
+        final ProjectRefIndex<String> index = new ProjectRefIndex<>(overrideMap);
+        for (ProjectVersionRef gav : gavs) {
+            blackhole.consume(index.get(gav));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.versioning.ProjectVersionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares reading a generated GAV lookup response into a tree before building the translation map against the
+ * {@link LookupResponseParser}. Run with {@code -prof gc} to compare the allocations as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LookupResponseParserBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Param({ "50000" })
+    private int size;
+
+    private byte[] response;
+
+    @Setup
+    public void setup() throws IOException {
+        final List<Map<String, Object>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final String version = "1.0." + i;
+            final List<String> availableVersions = new ArrayList<>();
+            for (int j = 1; j <= 5; j++) {
+                availableVersions.add(version + ".redhat-0000" + j);
+            }
+
+            final Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("bestMatchVersion", i % 3 == 0 ? null : version + ".redhat-00001");
+            entry.put("availableVersions", availableVersions);
+            entry.put("blacklisted", false);
+            entry.put("whitelisted", new ArrayList<>());
+            entry.put("version", version);
+            entry.put("groupId", "org.group" + (i % 100));
+            entry.put("artifactId", "artifact" + i);
+            entries.add(entry);
+        }
+        response = mapper.writeValueAsBytes(entries);
+    }
+
+    @Benchmark
+    public Map<ProjectVersionRef, String> tree() throws IOException {
+        final Map<ProjectVersionRef, String> translationMap = new HashMap<>();
+        for (JsonNode node : mapper.readTree(new ByteArrayInputStream(response))) {
+            final JsonNode bestMatch = node.get("bestMatchVersion");
+            if (bestMatch != null && !bestMatch.isNull()) {
+                translationMap.put(ProjectVersionFactory.withGAV(node.get("groupId").asText(),
+                        node.get("artifactId").asText(), node.get("version").asText()), bestMatch.asText());
+            }
+        }
+        return translationMap;
+    }
+
+    @Benchmark
+    public Map<ProjectVersionRef, String> streaming() throws IOException {
+        final Map<ProjectVersionRef, String> translationMap = new HashMap<>();
+        LookupResponseParser.parse(new ByteArrayInputStream(response), translationMap);
+        return translationMap;
+    }
+}
@@ -0,0 +1,137 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chooses the number of GAVs sent in each request to the Dependency Analyzer. The size grows as long as the requests
+ * complete within the latency target and is halved whenever a request times out or fails with a server error.
+ * <p>
+ * The last size that completed within the target is stored in a state file so that the next build starts from it
+ * instead of having to probe the Dependency Analyzer again.
+ * </p>
+ */
+class AdaptiveChunkSizer {
+
+    static final int DEFAULT_INITIAL_SIZE = 200;
+
+    static final int DEFAULT_MAX_SIZE = 10000;
+
+    private static final String SIZE = "chunkSize";
+
+    private static final double GROWTH_FACTOR = 1.5;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final File stateFile;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final long latencyTarget;
+
+    private int size;
+
+    private int lastGoodSize;
+
+    /**
+     * @param stateFile the file storing the last good size ; may be null in which case nothing is stored
+     * @param initialSize the size to start with when the state file doesn't exist
+     * @param minSize the size the chunks are never shrunk below
+     * @param maxSize the size the chunks are never grown above
+     * @param latencyTarget the duration in milliseconds requests should complete within
+     */
+    AdaptiveChunkSizer(File stateFile, int initialSize, int minSize, int maxSize, long latencyTarget) {
+        this.stateFile = stateFile;
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.latencyTarget = latencyTarget;
+        this.size = clamp(load(initialSize));
+        this.lastGoodSize = -1;
+    }
+
+    /**
+     * @return the size of the next chunk
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * @param chunkSize the size of the chunk that succeeded
+     * @param latency the duration of the request in milliseconds
+     */
+    void onSuccess(int chunkSize, long latency) {
+        if (latency > latencyTarget) {
+            logger.debug("Chunk of {} GAVs took {}ms which is above the target of {}ms", chunkSize, latency,
+                    latencyTarget);
+            return;
+        }
+
+        lastGoodSize = Math.max(lastGoodSize, chunkSize);
+        // Only grow when full sized chunks are fast enough, smaller ones (e.g. the last one) say nothing about it
+        if (chunkSize >= size) {
+            size = clamp((int) Math.ceil(size * GROWTH_FACTOR));
+        }
+    }
+
+    /**
+     * @param chunkSize the size of the chunk that timed out or failed with a server error
+     */
+    void onFailure(int chunkSize) {
+        size = clamp(Math.min(size, chunkSize) / 2);
+        if (lastGoodSize > size) {
+            lastGoodSize = size;
+        }
+        logger.debug("Chunk of {} GAVs failed ; reducing chunk size to {}", chunkSize, size);
+    }
+
+    /**
+     * Stores the last size that completed within the target, if any.
+     */
+    void save() {
+        if (stateFile == null || lastGoodSize < 0) {
+            return;
+        }
+
+        final Properties properties = new Properties();
+        properties.setProperty(SIZE, Integer.toString(lastGoodSize));
+        try {
+            Files.createDirectories(stateFile.toPath().getParent());
+            try (OutputStream out = Files.newOutputStream(stateFile.toPath())) {
+                properties.store(out, "Last chunk size that completed within the latency target");
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write chunk size state {}", stateFile, e);
+        }
+    }
+
+    private int load(int initialSize) {
+        if (stateFile == null || !stateFile.exists()) {
+            return initialSize;
+        }
+
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile.toPath())) {
+            properties.load(in);
+            final int stored = Integer.parseInt(properties.getProperty(SIZE));
+            logger.info("Starting with chunk size {} from {}", stored, stateFile);
+            return stored;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Unable to read chunk size state {} ; ignoring it", stateFile, e);
+            return initialSize;
+        }
+    }
+
+    private int clamp(int value) {
+        return Math.max(minSize, Math.min(maxSize, value));
+    }
+}
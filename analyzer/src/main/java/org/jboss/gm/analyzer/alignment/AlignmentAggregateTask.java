@@ -0,0 +1,428 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+import static org.gradle.api.Project.DEFAULT_VERSION;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.APPLY_GME_REPOS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME_PLUGINCONFIGS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.GME_REPOS;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_END;
+import static org.jboss.gm.analyzer.alignment.AlignmentTask.INJECT_GME_START;
+import static org.jboss.gm.common.io.ManipulationIO.writeManipulationModel;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.aeonbits.owner.ConfigCache;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.DirectoryFileFilter;
+import org.apache.commons.io.filefilter.SuffixFileFilter;
+import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.tasks.TaskAction;
+import org.jboss.gm.analyzer.alignment.groovy.GMEBaseScript;
+import org.jboss.gm.analyzer.alignment.io.DependencySnapshotIO;
+import org.jboss.gm.analyzer.alignment.io.LockfileIO;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.ManipulationCache;
+import org.jboss.gm.common.io.ManipulationIO;
+import org.jboss.gm.common.model.ManipulationModel;
+import org.jboss.gm.common.versioning.DynamicVersionParser;
+import org.jboss.gm.common.versioning.ProjectVersionFactory;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+import org.slf4j.Logger;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+
+/**
+ * The Gradle task of the root project that creates the {@code manipulation.json} file for the whole project
+ * (whether it's a single or multi module project). It depends on the
+ * {@value org.jboss.gm.analyzer.alignment.AlignmentTask#NAME} task of every project, which write a snapshot of the
+ * dependencies of their project. The snapshots are loaded into the {@link ManipulationCache} before performing the
+ * REST call, the writing of the model and of the marker files and running the custom groovy scripts.
+ */
+public class AlignmentAggregateTask extends DefaultTask {
+
+    static final String NAME = "alignmentAggregate";
+
+    private final Logger logger = getLogger();
+
+    @TaskAction
+    public void perform() {
+        final Project project = getProject();
+        final ManipulationCache cache = ManipulationCache.getCache(project);
+
+        try {
+            project.getAllprojects().stream()
+                    .filter(p -> p.getTasks().findByName(AlignmentTask.NAME) != null)
+                    .forEach(p -> collectProject(p, cache));
+
+            logger.info("Completed scanning projects; now processing for REST...");
+            Collection<ProjectVersionRef> allDeps = cache.getDependencies().values().stream()
+                    .flatMap(m -> m.values().stream()).distinct().collect(Collectors.toList());
+
+            final AlignmentService alignmentService = AlignmentServiceFactory
+                    .getAlignmentService(project, cache.getDependencies().keySet());
+
+            final AlignmentService.Response alignmentResponse = alignmentService.align(
+                    new AlignmentService.Request(
+                            cache.getGAV(),
+                            allDeps));
+
+            final ManipulationModel alignmentModel = cache.getModel();
+            final Map<Project, HashMap<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = cache
+                    .getDependencies();
+            final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+            final String newVersion = alignmentResponse.getNewProjectVersion();
+
+            if (configuration.dependencyResolutionFingerprinting()) {
+                final ConfigurationFingerprintCache fingerprintCache = ConfigurationFingerprintCache.getCache(project);
+                logger.info("Configuration fingerprinting saved {} of {} resolutions",
+                        fingerprintCache.getSavedResolutions(), fingerprintCache.getRequestedResolutions());
+            }
+
+            if (configuration.versionModificationEnabled()) {
+                project.setVersion(newVersion);
+                logger.info("Updating project {} version to {}", project, newVersion);
+                alignmentModel.setVersion(newVersion);
+            }
+
+            // Iterate through all modules and set their version
+            projectDependencies.forEach((key, value) -> {
+                final ManipulationModel correspondingModule = alignmentModel.findCorrespondingChild(key.getPath());
+                if (configuration.versionModificationEnabled()) {
+                    logger.info("Updating sub-project {} version to {} ", correspondingModule.getName(), newVersion);
+                    correspondingModule.setVersion(newVersion);
+                }
+                updateModuleDynamicDependencies(correspondingModule, value);
+                updateModuleDependencies(correspondingModule, value, alignmentResponse);
+            });
+
+            logger.info("Completed processing for alignment and writing {} ", cache.toString());
+
+            final String newProjectName = writeProjectNameIfNeeded();
+            if ((newProjectName != null) && !newProjectName.isEmpty()) {
+                alignmentModel.setName(newProjectName);
+            }
+            writeManipulationModel(project.getRootDir(), alignmentModel);
+            writeGmeMarkerFile();
+            writeGmeReposMarkerFile();
+            updateAllExtraGradleFilesWithGmeRepos();
+            writeGmeConfigMarkerFile();
+            writeRepositorySettingsFile(cache.getRepositories());
+
+            runCustomGroovyScript(configuration, project, alignmentModel);
+        } catch (ManipulationException e) {
+            throw new ManipulationUncheckedException(e);
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Failed to write marker file", e);
+        }
+    }
+
+    /**
+     * Loads the dependency snapshot written by the {@link AlignmentTask} of the project into the cache, along with
+     * the repositories and GAV of the project.
+     */
+    private void collectProject(Project project, ManipulationCache cache) {
+        final AlignmentTask task = (AlignmentTask) project.getTasks().getByName(AlignmentTask.NAME);
+        final String projectName = project.getName();
+
+        cache.addDependencies(project,
+                processAnyExistingManipulationFile(project, DependencySnapshotIO.readSnapshot(task.getSnapshotFile())));
+        project.getRepositories().forEach(cache::addRepository);
+        project.getBuildscript().getRepositories().forEach(cache::addRepository);
+
+        if (StringUtils.isBlank(project.getGroup().toString()) ||
+                DEFAULT_VERSION.equals(project.getVersion().toString())) {
+
+            logger.warn("Project '{}:{}:{}' is not fully defined ; skipping. ", project.getGroup(), projectName,
+                    project.getVersion());
+        } else {
+            ProjectVersionRef current = ProjectVersionFactory.withGAV(project.getGroup().toString(), projectName,
+                    project.getVersion().toString());
+
+            logger.debug("Adding {} to cache for scanning.", current);
+            cache.addGAV(current);
+        }
+
+        LockfileIO.renameAllLockFiles(AlignmentTask.getLocksRootPath(project));
+    }
+
+    /**
+     * Done here rather than by {@link AlignmentTask} as this task writes {@code manipulation.json}, which would
+     * otherwise be an input of every {@link AlignmentTask}.
+     */
+    private HashMap<RelaxedProjectVersionRef, ProjectVersionRef> processAnyExistingManipulationFile(Project project,
+            HashMap<RelaxedProjectVersionRef, ProjectVersionRef> allDependencies) {
+        // If there is an existing manipulation file, also use this as potential candidates.
+        if (!ManipulationIO.getManipulationFilePath(project.getRootProject().getRootDir()).toFile().exists()) {
+            return allDependencies;
+        }
+        final ManipulationModel manipulationModel = ManipulationIO.readManipulationModel(project.getRootProject().getRootDir())
+                .findCorrespondingChild(project.getName());
+
+        Map<String, ProjectVersionRef> aligned = manipulationModel.getAlignedDependencies();
+
+        for (Map.Entry<String, ProjectVersionRef> modelDependencies : aligned.entrySet()) {
+
+            // If we don't have 2 then we must be stored an unversioned artifact. Only interested in full GAV right now.
+            if (StringUtils.countMatches(modelDependencies.getKey(), ":") == 2) {
+
+                ProjectVersionRef originalPvr = SimpleProjectVersionRef.parse(modelDependencies.getKey());
+
+                for (Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef> entry : allDependencies.entrySet()) {
+
+                    RelaxedProjectVersionRef d = entry.getKey();
+
+                    if (d.equals(originalPvr)) {
+
+                        if (!modelDependencies.getValue().getVersionString().equals(entry.getValue().getVersionString())) {
+
+                            logger.info("Using existing model to update {} to {}", entry.getValue(),
+                                    modelDependencies.getValue());
+
+                            allDependencies.put(d, modelDependencies.getValue());
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return allDependencies;
+    }
+
+    private void writeGmeMarkerFile() throws IOException, ManipulationException {
+        File rootDir = getProject().getRootDir();
+        File gmeGradle = new File(rootDir, GME);
+        File rootGradle = new File(rootDir, Project.DEFAULT_BUILD_FILE);
+
+        if (!gmeGradle.exists()) {
+            Files.copy(getClass().getResourceAsStream('/' + GME), gmeGradle.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        if (rootGradle.exists()) {
+
+            List<String> lines = FileUtils.readLines(rootGradle, Charset.defaultCharset());
+            List<String> result = new ArrayList<>();
+
+            String first = org.jboss.gm.common.utils.FileUtils.getFirstLine(lines);
+
+            // Check if the first non-blank line is the gme phrase, otherwise inject it.
+            if (!INJECT_GME_START.equals(first.trim())) {
+                result.add(System.lineSeparator());
+                result.add(INJECT_GME_START);
+                result.add(System.lineSeparator());
+                result.addAll(lines);
+
+                FileUtils.writeLines(rootGradle, result);
+            }
+
+        } else {
+            logger.warn("Unable to find build.gradle in {} to modify.", rootDir);
+        }
+    }
+
+    private void writeGmeReposMarkerFile() throws IOException {
+        File rootDir = getProject().getRootDir();
+        File gmeReposGradle = new File(rootDir, GME_REPOS);
+
+        Files.copy(getClass().getResourceAsStream('/' + GME_REPOS), gmeReposGradle.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void updateAllExtraGradleFilesWithGmeRepos() throws IOException, ManipulationException {
+        final File rootDir = getProject().getRootDir();
+        final File gradleScriptsDirectory = rootDir.toPath().resolve("gradle").toFile();
+        if (!gradleScriptsDirectory.exists()) {
+            return;
+        }
+        final Collection<File> extraGradleScripts = FileUtils.listFiles(gradleScriptsDirectory, new SuffixFileFilter(".gradle"),
+                DirectoryFileFilter.DIRECTORY);
+        for (File extraGradleScript : extraGradleScripts) {
+            final List<String> lines = FileUtils.readLines(extraGradleScript, Charset.defaultCharset());
+
+            if (!APPLY_GME_REPOS.equals(org.jboss.gm.common.utils.FileUtils.getFirstLine(lines))) {
+                final List<String> result = new ArrayList<>(lines.size() + 2);
+                result.add(APPLY_GME_REPOS);
+                result.add(System.lineSeparator());
+                result.addAll(lines);
+                FileUtils.writeLines(extraGradleScript, result);
+            }
+        }
+    }
+
+    private void writeGmeConfigMarkerFile() throws IOException {
+        File rootDir = getProject().getRootDir();
+        File gmeGradle = new File(rootDir, GME_PLUGINCONFIGS);
+        File rootGradle = new File(rootDir, Project.DEFAULT_BUILD_FILE);
+
+        if (!gmeGradle.exists()) {
+            Files.copy(getClass().getResourceAsStream('/' + GME_PLUGINCONFIGS), gmeGradle.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        if (rootGradle.exists()) {
+
+            String line = org.jboss.gm.common.utils.FileUtils.getLastLine(rootGradle);
+            logger.debug("Read line '{}' from build.gradle", line);
+
+            if (!line.trim().equals(INJECT_GME_END)) {
+                // Haven't appended it before.
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(rootGradle, true))) {
+                    // Ensure the marker is on a line by itself.
+                    writer.newLine();
+                    writer.write(INJECT_GME_END);
+                    writer.newLine();
+                    writer.flush();
+                }
+            }
+        } else {
+            logger.warn("Unable to find build.gradle in {} to modify.", rootDir);
+        }
+    }
+
+    private void updateModuleDynamicDependencies(ManipulationModel correspondingModule,
+            HashMap<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies) {
+
+        allModuleDependencies.forEach((d, p) -> {
+            // we need to make sure that dynamic dependencies are stored with their original key
+            // in order for the manipulation plugin to be able to look them up properly
+            if (isNotBlank(d.getVersionString()) && DynamicVersionParser.isDynamic(d.getVersionString())) {
+                correspondingModule.getAlignedDependencies().put(d.toString(), p);
+            }
+        });
+    }
+
+    private void updateModuleDependencies(ManipulationModel correspondingModule,
+            HashMap<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies,
+            AlignmentService.Response alignmentResponse) {
+
+        allModuleDependencies.forEach((d, p) -> {
+            final String newDependencyVersion = alignmentResponse.getAlignedVersionOfGav(p);
+            if (newDependencyVersion != null) {
+                final ProjectVersionRef newVersion = ProjectVersionFactory.withNewVersion(p, newDependencyVersion);
+                // we need to make sure that dynamic dependencies are stored with their original key
+                // in order for the manipulation plugin to be able to look them up properly
+                correspondingModule.getAlignedDependencies().put(d.toString(), newVersion);
+            }
+        });
+    }
+
+    /**
+     * Writes a maven settings file containing artifact repositories used by this project.
+     */
+    private void writeRepositorySettingsFile(Collection<ArtifactRepository> repositories) {
+        Configuration config = ConfigCache.getOrCreate(Configuration.class);
+
+        String repositoriesFilePath = config.repositoriesFile();
+        if (!isEmpty(repositoriesFilePath)) {
+            File repositoriesFile;
+            if (Paths.get(repositoriesFilePath).isAbsolute()) {
+                repositoriesFile = new File(config.repositoriesFile());
+            } else {
+                repositoriesFile = new File(getProject().getRootDir(), repositoriesFilePath);
+            }
+
+            new RepositoryExporter(repositories).export(repositoriesFile);
+        } else {
+            getProject().getLogger().info("Repository export disabled.");
+        }
+    }
+
+    // we need to make sure that the name of the root project is stored if not set
+    // this is because the manipulation plugin must use the same name
+    // otherwise the model won't be found
+    // see also: https://discuss.gradle.org/t/rootproject-name-in-settings-gradle-vs-projectname-in-build-gradle/5704/4
+
+    private String writeProjectNameIfNeeded() throws IOException {
+        File rootDir = getProject().getRootDir();
+        File settingsGradle = new File(rootDir, "settings.gradle");
+
+        if (!settingsGradle.exists()) {
+            return null;
+        }
+
+        List<String> lines = FileUtils.readLines(settingsGradle, Charset.defaultCharset());
+        for (String line : lines) {
+            if (line.contains("rootProject.name")) {
+                return null;
+            }
+        }
+
+        final String newProjectName = AlignmentTask.DEFAULT_ROOT_PROJECT_NAME;
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(settingsGradle, true))) {
+            // Ensure the marker is on a line by itself.
+            writer.newLine();
+
+            writer.write("rootProject.name='" + newProjectName + "'");
+            writer.newLine();
+            writer.flush();
+        }
+
+        return newProjectName;
+    }
+
+    // for now we simply assume that the script is called gme.groovy and already resides in the project's root directory
+    private void runCustomGroovyScript(Configuration configuration, Project rootProject, ManipulationModel alignmentModel)
+            throws IOException, ManipulationException {
+
+        final List<File> groovyFiles = new ArrayList<>();
+        final String[] scripts = configuration.groovyScripts();
+
+        if (scripts != null) {
+            int i = 0;
+            for (String script : scripts) {
+                logger.info("Attempting to read URL {} ", script);
+                File remote = new File(rootProject.getRootDir(), "gme-" + i + "groovy");
+                FileUtils.copyURLToFile(new URL(script), remote);
+                groovyFiles.add(remote);
+            }
+        }
+        // Also check for a default gme.groovy as well as remote files.
+        groovyFiles.add(new File(rootProject.getRootDir(), "gme.groovy"));
+
+        for (File scriptFile : groovyFiles) {
+
+            if (scriptFile.exists()) {
+                final Binding binding = new Binding();
+                // We use the current class' classloader so the script has access to this plugin's API and the
+                // groovy API.
+                final GroovyShell groovyShell = new GroovyShell(this.getClass().getClassLoader(), binding);
+                final Script script = groovyShell.parse(scriptFile);
+
+                logger.info("Attempting to invoke groovy script {} ", scriptFile);
+
+                // Inject the values via a new BaseScript so user's can have completion.
+                if (script instanceof GMEBaseScript) {
+                    ((GMEBaseScript) script).setValues(rootProject, alignmentModel);
+                } else {
+                    throw new ManipulationException("Cannot cast " + script + " to a BaseScript to set values.");
+                }
+                script.run();
+            }
+        }
+    }
+}
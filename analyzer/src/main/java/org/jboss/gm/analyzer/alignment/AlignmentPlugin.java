@@ -1,7 +1,13 @@
 package org.jboss.gm.analyzer.alignment;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.jboss.gm.common.ManipulationCache;
 import org.jboss.gm.common.model.ManipulationModel;
 import org.jboss.gm.common.utils.ManifestUtils;
@@ -9,8 +15,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Results in adding a task with name {@value org.jboss.gm.analyzer.alignment.AlignmentTask#NAME}.
- * It scans the project(s) and creates the manipulation models.
+ * Results in adding a task with name {@value org.jboss.gm.analyzer.alignment.AlignmentTask#NAME} to each project
+ * which scans the project, and a task with name {@value org.jboss.gm.analyzer.alignment.AlignmentAggregateTask#NAME}
+ * to the root project which creates the manipulation models once all projects have been scanned.
  */
 @SuppressWarnings("unused")
 public class AlignmentPlugin implements Plugin<Project> {
@@ -33,17 +40,24 @@ public class AlignmentPlugin implements Plugin<Project> {
 
                 logger.info("Setup cache for project {}", cache);
             });
+
+            project.getTasks().create(AlignmentAggregateTask.NAME, AlignmentAggregateTask.class,
+                    aggregate -> aggregate.dependsOn((Callable<List<Task>>) () -> project.getAllprojects().stream()
+                            .map(p -> p.getTasks().findByName(AlignmentTask.NAME))
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList())));
         }
 
-        project.getTasks().create(AlignmentTask.NAME, AlignmentTask.class);
+        // Running the alignment task of any project also results in the aggregation being performed once all the
+        // alignment tasks it depends on have run
+        project.getTasks().create(AlignmentTask.NAME, AlignmentTask.class,
+                task -> task.finalizedBy(Project.PATH_SEPARATOR + AlignmentAggregateTask.NAME));
     }
 
     private ManipulationModel getManipulationModel(Project project) {
         final String name = project.getName();
-        final ManipulationCache cache = ManipulationCache.getCache(project);
         final ManipulationModel alignmentModel = new ManipulationModel(name, project.getGroup().toString());
 
-        cache.addProject(name);
         project.getChildProjects().forEach((n, p) -> alignmentModel.addChild(getManipulationModel(p)));
 
         return alignmentModel;
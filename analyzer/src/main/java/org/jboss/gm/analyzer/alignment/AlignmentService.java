@@ -92,6 +92,16 @@ public interface AlignmentService {
 
         Response customize(Response response);
 
+        /**
+         * @param request the request, before it was changed by the
+         *        {@link org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer}s
+         * @param response the response to the customized request
+         * @return the customized response
+         */
+        default Response customize(Request request, Response response) {
+            return customize(response);
+        }
+
         // Integer.MIN_VALUE is the max order. This means that if we have 2 services for example
         // we with the first one to be invoked before the second, we would give the first one a
         // value for order that is smaller than that of the second one (for example 0 and 10)
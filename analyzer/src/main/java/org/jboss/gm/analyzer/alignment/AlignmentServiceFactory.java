@@ -1,11 +1,11 @@
 package org.jboss.gm.analyzer.alignment;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 import org.aeonbits.owner.ConfigCache;
+import org.apache.commons.lang.StringUtils;
 import org.gradle.api.Project;
 import org.jboss.gm.common.Configuration;
 
@@ -18,19 +18,28 @@ final class AlignmentServiceFactory {
     private AlignmentServiceFactory() {
     }
 
-    static AlignmentService getAlignmentService(Set<Project> projects) {
+    static AlignmentService getAlignmentService(Project rootProject, Set<Project> projects) {
         Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
 
-        return new WithCustomizersDelegatingAlignmentService(new DAAlignmentService(configuration),
+        final AlignmentService delegate;
+        if (StringUtils.isNotEmpty(configuration.alignmentSnapshot())) {
+            delegate = new OfflineAlignmentService(configuration);
+        } else if (DAPrefetcher.isEnabled(configuration)) {
+            delegate = DAPrefetcher.getPrefetcher(rootProject);
+        } else {
+            delegate = DAAlignmentService.forBuild(rootProject, configuration);
+        }
+
+        return new WithCustomizersDelegatingAlignmentService(delegate,
                 getRequestCustomizers(configuration, projects),
                 getResponseCustomizers(configuration, projects));
     }
 
-    private static List<AlignmentService.RequestCustomizer> getRequestCustomizers(Configuration configuration,
+    static List<AlignmentService.RequestCustomizer> getRequestCustomizers(Configuration configuration,
             Set<Project> projects) {
-        return Collections
-                .singletonList(DependencyExclusionCustomizer.fromConfigurationForModule(configuration,
-                        projects));
+        return Arrays.asList(
+                DependencyExclusionCustomizer.fromConfigurationForModule(configuration, projects),
+                SuffixedDependencyExclusionCustomizer.fromConfiguration(configuration));
     }
 
     private static List<AlignmentService.ResponseCustomizer> getResponseCustomizers(Configuration configuration,
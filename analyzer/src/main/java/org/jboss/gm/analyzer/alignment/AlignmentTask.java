@@ -1,68 +1,80 @@
 package org.jboss.gm.analyzer.alignment;
 
-import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.apache.commons.lang.StringUtils.isNotBlank;
-import static org.gradle.api.Project.DEFAULT_VERSION;
-import static org.jboss.gm.common.io.ManipulationIO.writeManipulationModel;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.net.URL;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.aeonbits.owner.ConfigCache;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
-import org.commonjava.maven.ext.common.ManipulationException;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.DependencySet;
-import org.gradle.api.artifacts.LenientConfiguration;
-import org.gradle.api.artifacts.ModuleVersionSelector;
-import org.gradle.api.artifacts.ProjectDependency;
-import org.gradle.api.artifacts.ResolvedDependency;
-import org.gradle.api.artifacts.UnresolvedDependency;
-import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.ExternalDependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ResolutionStrategy;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.attributes.Category;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.initialization.Settings;
 import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
 import org.gradle.api.internal.artifacts.ivyservice.resolutionstrategy.DefaultResolutionStrategy;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
-import org.jboss.gm.analyzer.alignment.groovy.GMEBaseScript;
+import org.jboss.gm.analyzer.alignment.io.DependencySnapshotIO;
 import org.jboss.gm.analyzer.alignment.io.LockfileIO;
 import org.jboss.gm.common.Configuration;
-import org.jboss.gm.common.ManipulationCache;
-import org.jboss.gm.common.io.ManipulationIO;
-import org.jboss.gm.common.model.ManipulationModel;
 import org.jboss.gm.common.versioning.DynamicVersionParser;
 import org.jboss.gm.common.versioning.ProjectVersionFactory;
 import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
 import org.slf4j.Logger;
 
-import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
-import groovy.lang.Script;
-
 /**
- * The actual Gradle task that creates the {@code manipulation.json} file for the whole project
- * (whether it's a single or multi module project)
+ * The Gradle task that collects the dependencies of a single project into a snapshot file. The snapshots of all
+ * projects are then used by {@link org.jboss.gm.analyzer.alignment.AlignmentAggregateTask} to create the
+ * {@code manipulation.json} file for the whole project (whether it's a single or multi module project)
+ * <p>
+ * As the inputs and output of the task are declared, it is skipped when nothing influencing the dependencies of the
+ * project has changed and none of them use a dynamic version. The task isn't cacheable though: only the scripts at the
+ * usual locations are tracked, while scripts applied from elsewhere or from a URL aren't, which is tolerable for an
+ * up-to-date check within a workspace but not for reusing the output across workspaces.
+ * </p>
  */
 public class AlignmentTask extends DefaultTask {
 
@@ -73,506 +85,494 @@ public class AlignmentTask extends DefaultTask {
     static final String INJECT_GME_END = "apply from: \"gme-pluginconfigs.gradle\"";
     static final String GME_PLUGINCONFIGS = "gme-pluginconfigs.gradle";
     static final String NAME = "generateAlignmentMetadata";
+    static final String SNAPSHOT = "gme/alignment-dependencies.json";
+    static final String DEFAULT_ROOT_PROJECT_NAME = "rootProject";
 
-    private final Logger logger = getLogger();
-
-    @TaskAction
-    public void perform() {
-        final Project project = getProject();
-        final String projectName = project.getName();
-
-        logger.info("Starting model task for project {} with GAV {}:{}:{}", project.getDisplayName(), project.getGroup(),
-                projectName, project.getVersion());
-
-        try {
-            final Set<ProjectVersionRef> lockFileDeps = LockfileIO
-                    .allProjectVersionRefsFromLockfiles(getLocksRootPath(project));
-            final ManipulationCache cache = ManipulationCache.getCache(project);
-            final String currentProjectVersion = project.getVersion().toString();
-            final HashMap<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = processAnyExistingManipulationFile(
-                    project,
-                    getDependencies(project, lockFileDeps));
-
-            cache.addDependencies(project, dependencies);
-            project.getRepositories().forEach(cache::addRepository);
-            project.getBuildscript().getRepositories().forEach(cache::addRepository);
-
-            if (StringUtils.isBlank(project.getGroup().toString()) ||
-                    DEFAULT_VERSION.equals(project.getVersion().toString())) {
-
-                logger.warn("Project '{}:{}:{}' is not fully defined ; skipping. ", project.getGroup(), projectName,
-                        project.getVersion());
-            } else {
-                ProjectVersionRef current = ProjectVersionFactory.withGAV(project.getGroup().toString(), projectName,
-                        currentProjectVersion);
-
-                logger.debug("Adding {} to cache for scanning.", current);
-                cache.addGAV(current);
+    // the lines AlignmentAggregateTask injects into the root build script, the settings and the scripts in gradle/
+    private static final Set<String> INJECTED_LINES = new HashSet<>(Arrays.asList(INJECT_GME_START, INJECT_GME_END,
+            APPLY_GME_REPOS, "rootProject.name='" + DEFAULT_ROOT_PROJECT_NAME + "'"));
 
-            }
-
-            // when the set is empty, we know that this was the last alignment task to execute.
-            if (cache.removeProject(projectName)) {
-
-                logger.info("Completed scanning projects; now processing for REST...");
-                Collection<ProjectVersionRef> allDeps = cache.getDependencies().values().stream()
-                        .flatMap(m -> m.values().stream()).distinct().collect(Collectors.toList());
-
-                final AlignmentService alignmentService = AlignmentServiceFactory
-                        .getAlignmentService(cache.getDependencies().keySet());
-
-                final AlignmentService.Response alignmentResponse = alignmentService.align(
-                        new AlignmentService.Request(
-                                cache.getGAV(),
-                                allDeps));
-
-                final ManipulationModel alignmentModel = cache.getModel();
-                final HashMap<Project, HashMap<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = cache
-                        .getDependencies();
-                final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
-                final String newVersion = alignmentResponse.getNewProjectVersion();
-
-                // While we've completed processing (sub)projects the current one is not going to be the root; so
-                // explicitly retrieve it and set its version.
-                if (configuration.versionModificationEnabled()) {
-                    project.getRootProject().setVersion(newVersion);
-                    logger.info("Updating project {} version to {}", project.getRootProject(), newVersion);
-                    alignmentModel.setVersion(newVersion);
-                }
+    private final Logger logger = getLogger();
 
-                // Iterate through all modules and set their version
-                projectDependencies.forEach((key, value) -> {
-                    final ManipulationModel correspondingModule = alignmentModel.findCorrespondingChild(key.getPath());
-                    if (configuration.versionModificationEnabled()) {
-                        logger.info("Updating sub-project {} version to {} ", correspondingModule.getName(), newVersion);
-                        correspondingModule.setVersion(newVersion);
-                    }
-                    updateModuleDynamicDependencies(correspondingModule, value);
-                    updateModuleDependencies(correspondingModule, value, alignmentResponse);
-                });
+    public AlignmentTask() {
+        // Dynamic versions might resolve differently whenever they are resolved
+        getOutputs().upToDateWhen(t -> !hasDynamicDependencies(getProject()));
+    }
 
-                logger.info("Completed processing for alignment and writing {} ", cache.toString());
+    /**
+     * @return the snapshot of the dependencies of the project that is consumed by
+     *         {@link org.jboss.gm.analyzer.alignment.AlignmentAggregateTask}
+     */
+    @OutputFile
+    public File getSnapshotFile() {
+        return new File(getProject().getBuildDir(), SNAPSHOT);
+    }
 
-                final String newProjectName = writeProjectNameIfNeeded();
-                if ((newProjectName != null) && !newProjectName.isEmpty()) {
-                    alignmentModel.setName(newProjectName);
-                }
-                writeManipulationModel(project.getRootDir(), alignmentModel);
-                writeGmeMarkerFile();
-                writeGmeReposMarkerFile();
-                updateAllExtraGradleFilesWithGmeRepos();
-                writeGmeConfigMarkerFile();
-                writeRepositorySettingsFile(cache.getRepositories());
-
-                runCustomGroovyScript(configuration, project.getRootProject(), alignmentModel);
-            }
+    /**
+     * The inputs are the build script and properties of the project, and the files influencing every project: the root
+     * properties, {@code buildSrc} and the init scripts. The shared root scripts are tracked by
+     * {@link #getSharedBuildScripts()}.
+     * <p>
+     * The lockfiles and {@code manipulation.json} aren't inputs as {@link AlignmentAggregateTask} renames, respectively
+     * writes, them. The lockfiles only matter for dynamic versions, which prevent the task from being up to date, and
+     * the existing model is applied by {@link AlignmentAggregateTask}.
+     * </p>
+     *
+     * @return the files which influence the dependencies of the project
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileCollection getBuildFiles() {
+        final Project project = getProject();
+        final Project rootProject = project.getRootProject();
+        final File rootDir = rootProject.getRootDir();
+
+        return project.files(
+                project == rootProject ? Collections.emptyList() : project.getBuildFile(),
+                new File(project.getProjectDir(), Project.GRADLE_PROPERTIES),
+                new File(rootDir, Project.GRADLE_PROPERTIES),
+                rootProject.fileTree(new File(rootDir, "buildSrc"), t -> t.exclude("build/**", ".gradle/**")),
+                project.getGradle().getStartParameter().getAllInitScripts());
+    }
 
-            // this needs to happen for each project, not just the last one
-            LockfileIO.renameAllLockFiles(getLocksRootPath(project));
+    /**
+     * As any project can configure the dependencies of the others through the root build script, the settings or the
+     * scripts of the {@code gradle} directory, they are inputs of every project. {@link AlignmentAggregateTask} injects
+     * lines applying the GME scripts into them, so they are tracked by their content without these lines, otherwise
+     * the task would never be up to date after the first alignment.
+     *
+     * @return the hash of each shared root script, keyed by its path relative to the root directory
+     */
+    @Input
+    public Map<String, String> getSharedBuildScripts() {
+        final Project rootProject = getProject().getRootProject();
+        final Path rootDir = rootProject.getRootDir().toPath();
+        final Map<String, String> result = new TreeMap<>();
+
+        rootProject.files(
+                rootProject.getBuildFile(),
+                rootDir.resolve(Settings.DEFAULT_SETTINGS_FILE),
+                rootDir.resolve(Settings.DEFAULT_SETTINGS_FILE + ".kts"),
+                rootProject.fileTree(rootDir.resolve("gradle"), t -> t.include("**/*.gradle", "**/*.gradle.kts")))
+                .filter(File::isFile)
+                .forEach(f -> result.put(rootDir.relativize(f.toPath()).toString(), hashWithoutInjectedLines(f)));
+        return result;
+    }
 
-        } catch (ManipulationException e) {
-            throw new ManipulationUncheckedException(e);
+    private static String hashWithoutInjectedLines(File script) {
+        try {
+            return DigestUtils.sha256Hex(FileUtils.readLines(script, Charset.defaultCharset()).stream()
+                    .map(String::trim)
+                    .filter(l -> !l.isEmpty() && !INJECTED_LINES.contains(l))
+                    .collect(Collectors.joining("\n")));
         } catch (IOException e) {
-            throw new ManipulationUncheckedException("Failed to write marker file", e);
+            throw new ManipulationUncheckedException("Unable to read " + script, e);
         }
     }
 
-    // TODO: we might need to make this configurable
-    private Path getLocksRootPath(Project project) {
-        return project.getProjectDir().toPath().resolve("gradle/dependency-locks");
+    /**
+     * @return the configuration properties which influence the collected dependencies
+     */
+    @Input
+    public Map<String, String> getConfigurationProperties() {
+        final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+        final Map<String, String> result = new TreeMap<>();
+
+        result.put("ignoreUnresolvableDependencies", String.valueOf(configuration.ignoreUnresolvableDependencies()));
+        result.put("dependencyResolutionEngine", String.valueOf(configuration.dependencyResolutionEngine()));
+        result.put("dependencyResolutionMerged", String.valueOf(configuration.dependencyResolutionMerged()));
+        return result;
     }
 
-    private void writeGmeMarkerFile() throws IOException, ManipulationException {
-        File rootDir = getProject().getRootDir();
-        File gmeGradle = new File(rootDir, GME);
-        File rootGradle = new File(rootDir, Project.DEFAULT_BUILD_FILE);
-
-        if (!gmeGradle.exists()) {
-            Files.copy(getClass().getResourceAsStream('/' + GME), gmeGradle.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        }
-
-        if (rootGradle.exists()) {
-
-            List<String> lines = FileUtils.readLines(rootGradle, Charset.defaultCharset());
-            List<String> result = new ArrayList<>();
+    @TaskAction
+    public void perform() {
+        final Project project = getProject();
 
-            String first = org.jboss.gm.common.utils.FileUtils.getFirstLine(lines);
+        logger.info("Starting model task for project {} with GAV {}:{}:{}", project.getDisplayName(), project.getGroup(),
+                project.getName(), project.getVersion());
 
-            // Check if the first non-blank line is the gme phrase, otherwise inject it.
-            if (!INJECT_GME_START.equals(first.trim())) {
-                result.add(System.lineSeparator());
-                result.add(INJECT_GME_START);
-                result.add(System.lineSeparator());
-                result.addAll(lines);
+        final Map<String, Map<ProjectRef, String>> lockFileDeps = LockfileIO
+                .lockedVersionsByConfiguration(getLocksRootPath(project));
+        final HashMap<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = getDependencies(project, lockFileDeps);
 
-                FileUtils.writeLines(rootGradle, result);
-            }
+        // The REST call and the writing of the model are performed by the aggregate task once the dependencies of
+        // all the projects have been collected.
+        DependencySnapshotIO.writeSnapshot(getSnapshotFile(), dependencies);
 
-        } else {
-            logger.warn("Unable to find build.gradle in {} to modify.", rootDir);
+        if (DAPrefetcher.isEnabled(ConfigCache.getOrCreate(Configuration.class))) {
+            DAPrefetcher.getPrefetcher(project).submit(new HashSet<>(dependencies.values()));
         }
     }
 
-    private void writeGmeReposMarkerFile() throws IOException {
-        File rootDir = getProject().getRootDir();
-        File gmeReposGradle = new File(rootDir, GME_REPOS);
-
-        Files.copy(getClass().getResourceAsStream('/' + GME_REPOS), gmeReposGradle.toPath(),
-                StandardCopyOption.REPLACE_EXISTING);
-    }
-
-    private void updateAllExtraGradleFilesWithGmeRepos() throws IOException, ManipulationException {
-        final File rootDir = getProject().getRootDir();
-        final File gradleScriptsDirectory = rootDir.toPath().resolve("gradle").toFile();
-        if (!gradleScriptsDirectory.exists()) {
-            return;
-        }
-        final Collection<File> extraGradleScripts = FileUtils.listFiles(gradleScriptsDirectory, new SuffixFileFilter(".gradle"),
-                DirectoryFileFilter.DIRECTORY);
-        for (File extraGradleScript : extraGradleScripts) {
-            final List<String> lines = FileUtils.readLines(extraGradleScript, Charset.defaultCharset());
-
-            if (!APPLY_GME_REPOS.equals(org.jboss.gm.common.utils.FileUtils.getFirstLine(lines))) {
-                final List<String> result = new ArrayList<>(lines.size() + 2);
-                result.add(APPLY_GME_REPOS);
-                result.add(System.lineSeparator());
-                result.addAll(lines);
-                FileUtils.writeLines(extraGradleScript, result);
-            }
-        }
+    // TODO: we might need to make this configurable
+    static Path getLocksRootPath(Project project) {
+        return project.getProjectDir().toPath().resolve("gradle/dependency-locks");
     }
 
-    private void writeGmeConfigMarkerFile() throws IOException {
-        File rootDir = getProject().getRootDir();
-        File gmeGradle = new File(rootDir, GME_PLUGINCONFIGS);
-        File rootGradle = new File(rootDir, Project.DEFAULT_BUILD_FILE);
-
-        if (!gmeGradle.exists()) {
-            Files.copy(getClass().getResourceAsStream('/' + GME_PLUGINCONFIGS), gmeGradle.toPath(),
-                    StandardCopyOption.REPLACE_EXISTING);
-        }
-
-        if (rootGradle.exists()) {
-
-            String line = org.jboss.gm.common.utils.FileUtils.getLastLine(rootGradle);
-            logger.debug("Read line '{}' from build.gradle", line);
-
-            if (!line.trim().equals(INJECT_GME_END)) {
-                // Haven't appended it before.
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(rootGradle, true))) {
-                    // Ensure the marker is on a line by itself.
-                    writer.newLine();
-                    writer.write(INJECT_GME_END);
-                    writer.newLine();
-                    writer.flush();
-                }
-            }
-        } else {
-            logger.warn("Unable to find build.gradle in {} to modify.", rootDir);
-        }
+    private boolean hasDynamicDependencies(Project project) {
+        return project.getConfigurations().stream()
+                .flatMap(c -> c.getDependencies().stream())
+                .map(Dependency::getVersion)
+                .anyMatch(v -> isNotBlank(v) && DynamicVersionParser.isDynamic(v));
     }
 
     private HashMap<RelaxedProjectVersionRef, ProjectVersionRef> getDependencies(Project project,
-            Set<ProjectVersionRef> lockFileDeps) {
-        Configuration internalConfig = ConfigCache.getOrCreate(Configuration.class);
+            Map<String, Map<ProjectRef, String>> lockFileDeps) {
+        final Configuration internalConfig = ConfigCache.getOrCreate(Configuration.class);
+        final List<org.gradle.api.artifacts.Configuration> resolvableConfigurations = new ArrayList<>();
 
-        final HashMap<RelaxedProjectVersionRef, ProjectVersionRef> depMap = new HashMap<>();
-        project.getConfigurations().all(configuration -> {
+        final LockedVersions lockedVersions = new LockedVersions(lockFileDeps);
 
+        project.getConfigurations().all(configuration -> {
             if (configuration.isCanBeResolved()) {
-
-                // using getAllDependencies here instead of getDependencies because the later
-                // was returning an empty array for the root project of SpringLikeLayoutFunctionalTest
-                final DependencySet allDependencies = configuration.getAllDependencies();
-                final Set<ProjectDependency> allProjectDependencies = allDependencies
-                        .stream()
-                        .filter(d -> ProjectDependency.class.isAssignableFrom(d.getClass()))
-                        .map(ProjectDependency.class::cast)
-                        .collect(Collectors.toSet());
-
-                if (configuration.getResolutionStrategy() instanceof DefaultResolutionStrategy) {
-                    DefaultResolutionStrategy defaultResolutionStrategy = (DefaultResolutionStrategy) configuration
-                            .getResolutionStrategy();
-
-                    if (defaultResolutionStrategy.getConflictResolution() == ConflictResolution.strict) {
-                        // failOnVersionConflict() sets this which causes our plugin to crash out. Reset to latest to make an attempt
-                        // at continuing. As Gradle creates 'decorated' we can't use reflection to change the value back to the
-                        // default. Therefore use preferProjectModules as its not eager-fail.
-                        logger.warn("Detected use of conflict resolution strategy strict ; resetting to preferProjectModules.");
-
-                        defaultResolutionStrategy.preferProjectModules();
-                    }
-                }
-
-                LenientConfiguration lenient = configuration.copyRecursive().getResolvedConfiguration()
-                        .getLenientConfiguration();
-
-                // We don't care about modules of the project being unresolvable at this stage. Had we not excluded them,
-                // we would get false negatives
-                final Set<UnresolvedDependency> unresolvedDependencies = getUnresolvedDependenciesExcludingProjectDependencies(
-                        lenient, allProjectDependencies);
-
-                if (unresolvedDependencies.size() > 0) {
-                    if (internalConfig.ignoreUnresolvableDependencies()) {
-                        logger.warn("For configuration {}; ignoring all unresolvable dependencies: {}", configuration.getName(),
-                                unresolvedDependencies);
-                    } else {
-
-                        logger.error("For configuration {}; unable to resolve all dependencies: {}", configuration.getName(),
-                                lenient.getUnresolvedModuleDependencies());
-                        for (UnresolvedDependency ud : unresolvedDependencies) {
-                            logger.error("Unresolved had problem in {} with ", ud.getSelector(), ud.getProblem());
-                        }
-                        throw new ManipulationUncheckedException("For configuration " + configuration.getName()
-                                + ", unable to resolve all project dependencies: " + unresolvedDependencies);
-                    }
-                }
-                lenient.getFirstLevelModuleDependencies().forEach(dep -> {
-                    // skip dependencies on project modules
-                    if (compareTo(dep, allProjectDependencies)) {
-                        project.getLogger().debug("Skipping internal project dependency {} of configuration {}",
-                                dep.toString(), configuration.getName());
-                        return;
-                    }
-                    String version = dep.getModuleVersion(); // this is the resolved version from gradle
-                    // if the dependency is present in any of the lockfiles, then we use that version
-                    for (ProjectVersionRef lockFileDep : lockFileDeps) {
-                        if (lockFileDep.getGroupId().equals(dep.getModuleGroup())
-                                && lockFileDep.getArtifactId().equals(dep.getModuleName())) {
-                            version = lockFileDep.getVersionString();
-                        }
-                    }
-                    ProjectVersionRef pvr = ProjectVersionFactory.withGAVAndConfiguration(dep.getModuleGroup(),
-                            dep.getModuleName(),
-                            version, configuration.getName());
-
-                    List<Dependency> originalDeps = allDependencies.stream()
-                            .filter(d -> StringUtils.equals(d.getGroup(), dep.getModuleGroup()) &&
-                                    StringUtils.equals(d.getName(), dep.getModuleName()))
-                            .collect(Collectors.toList());
-
-                    // Not sure this can ever happen - would mean we have GA with multiple V.
-                    if (originalDeps.size() > 1) {
-                        logger.error("Found duplicate matching original dependencies {} for {}", originalDeps, dep);
-                    }
-
-                    RelaxedProjectVersionRef relaxedProjectVersionRef;
-                    // If we haven't found any original dependency we'll default to the current resolved dependency
-                    // value. This might be possible if the dependency has come from a lock file.
-                    if (originalDeps.size() == 0) {
-                        relaxedProjectVersionRef = new RelaxedProjectVersionRef(dep);
-                    } else {
-                        relaxedProjectVersionRef = new RelaxedProjectVersionRef(originalDeps.get(0));
-                    }
-
-                    // TODO: What if originalDep has an empty version - then its from the BOM. Should we record it
-                    // at all?
-                    // if (StringUtils.isNotBlank(originalDep.getVersion())) {
-
-                    if (depMap.put(relaxedProjectVersionRef, pvr) == null) {
-                        logger.info("For {}, with original key {}, adding dependency to scan {} ", configuration,
-                                relaxedProjectVersionRef, pvr);
-                    }
-
-                });
+                resetStrictConflictResolution(configuration);
+                resolvableConfigurations.add(configuration);
             } else {
                 logger.debug("Unable to resolve configuration {} for project {}", configuration.getName(), project);
             }
         });
 
+        final DependencyResolutionEngine engine;
+        if (internalConfig.dependencyResolutionFingerprinting()) {
+            engine = ConfigurationFingerprintCache.getCache(project)
+                    .decorate(project, DependencyResolutionEngine.of(internalConfig.dependencyResolutionEngine()));
+        } else {
+            engine = DependencyResolutionEngine.of(internalConfig.dependencyResolutionEngine());
+        }
+        final List<LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef>> resolved;
+        final int threads = Math.min(internalConfig.dependencyResolutionThreads(), resolvableConfigurations.size());
+        if (internalConfig.dependencyResolutionMerged() && canBeMerged(project, resolvableConfigurations)) {
+            resolved = resolveConfigurationsMerged(project, resolvableConfigurations, lockedVersions, engine);
+        } else if (threads > 1) {
+            resolved = resolveConfigurationsConcurrently(project, resolvableConfigurations, lockedVersions, engine,
+                    threads, internalConfig.dependencyResolutionSerialFallback());
+        } else {
+            resolved = resolveConfigurationsSerially(project, resolvableConfigurations, lockedVersions, engine);
+        }
+
+        // Merge in configuration order so that the result is identical regardless of how the
+        // configurations were resolved.
+        final HashMap<RelaxedProjectVersionRef, ProjectVersionRef> depMap = new HashMap<>();
+        for (int i = 0; i < resolvableConfigurations.size(); i++) {
+            final org.gradle.api.artifacts.Configuration configuration = resolvableConfigurations.get(i);
+            resolved.get(i).forEach((relaxedProjectVersionRef, pvr) -> {
+                if (depMap.put(relaxedProjectVersionRef, pvr) == null) {
+                    logger.info("For {}, with original key {}, adding dependency to scan {} ", configuration,
+                            relaxedProjectVersionRef, pvr);
+                }
+            });
+        }
+
         return depMap;
     }
 
-    private Set<UnresolvedDependency> getUnresolvedDependenciesExcludingProjectDependencies(LenientConfiguration lenient,
-            Set<ProjectDependency> allProjectModules) {
-        return lenient.getUnresolvedModuleDependencies()
-                .stream()
-                .filter(d -> !compareTo(d, allProjectModules))
-                .collect(Collectors.toSet());
+    private List<LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef>> resolveConfigurationsSerially(
+            Project project, List<org.gradle.api.artifacts.Configuration> configurations,
+            LockedVersions lockedVersions, DependencyResolutionEngine engine) {
+        return configurations.stream()
+                .map(c -> resolveConfiguration(project, c, lockedVersions, engine))
+                .collect(Collectors.toList());
     }
 
-    private boolean compareTo(UnresolvedDependency unresolvedDependency, Set<ProjectDependency> projectDependencies) {
-        ModuleVersionSelector moduleVersionSelector = unresolvedDependency.getSelector();
-        for (ProjectDependency projectDependency : projectDependencies) {
-            if (StringUtils.equals(moduleVersionSelector.getGroup(), projectDependency.getGroup()) &&
-                    StringUtils.equals(moduleVersionSelector.getName(), projectDependency.getName()) &&
-                    StringUtils.equals(moduleVersionSelector.getVersion(), projectDependency.getVersion())) {
-                return true;
+    /**
+     * Resolves the configurations from a pool of threads that Gradle doesn't manage. Each configuration is resolved
+     * through its own copy, so the resolutions don't share any resolution state. The remaining shared state is the
+     * project: Gradle 5 resolves configurations from threads not holding the project lock with lenient access to the
+     * project state (see {@code ProjectStateRegistry.withLenientState}) instead of taking the lock, which is what
+     * makes it safe to resolve them concurrently. Gradle versions enforcing the project lock fail with an
+     * {@link IllegalStateException} instead: if {@code serialFallback} is set, the configurations are then resolved
+     * serially once all the concurrent resolutions have stopped.
+     */
+    private List<LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef>> resolveConfigurationsConcurrently(
+            Project project, List<org.gradle.api.artifacts.Configuration> configurations,
+            LockedVersions lockedVersions, DependencyResolutionEngine engine, int threads,
+            boolean serialFallback) {
+        logger.info("Resolving {} configurations of project {} using {} threads", configurations.size(), project, threads);
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            final Thread thread = new Thread(r, "gme-resolve-" + project.getName() + '-' + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef>>> futures = new ArrayList<>();
+            for (org.gradle.api.artifacts.Configuration configuration : configurations) {
+                futures.add(executor.submit(() -> resolveConfiguration(project, configuration, lockedVersions, engine)));
+            }
+
+            final List<LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef>> result = new ArrayList<>();
+            for (Future<LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef>> future : futures) {
+                try {
+                    result.add(future.get());
+                } catch (ExecutionException e) {
+                    if (serialFallback && e.getCause() instanceof IllegalStateException) {
+                        logger.warn("Unable to resolve the configurations of {} concurrently ; resolving them serially",
+                                project, e.getCause());
+                        futures.forEach(f -> f.cancel(true));
+                        awaitTermination(project, executor);
+                        return resolveConfigurationsSerially(project, configurations, lockedVersions, engine);
+                    }
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new ManipulationUncheckedException("Unable to resolve configurations of " + project, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ManipulationUncheckedException("Interrupted while resolving configurations of " + project, e);
+                }
             }
+            return result;
+        } finally {
+            executor.shutdownNow();
         }
-        return false;
     }
 
-    private boolean compareTo(ResolvedDependency dependency, Set<ProjectDependency> projectDependencies) {
-        for (ProjectDependency projectDependency : projectDependencies) {
-            if (StringUtils.equals(dependency.getModuleGroup(), projectDependency.getGroup()) &&
-                    StringUtils.equals(dependency.getModuleName(), projectDependency.getName()) &&
-                    StringUtils.equals(dependency.getModuleVersion(), projectDependency.getVersion())) {
-                return true;
+    /**
+     * Stops the executor and waits for the running resolutions, which might not react to interruptions, to complete.
+     */
+    private void awaitTermination(Project project, ExecutorService executor) {
+        executor.shutdownNow();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.info("Waiting for the concurrent resolutions of the configurations of {} to complete", project);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManipulationUncheckedException("Interrupted while resolving configurations of " + project, e);
         }
-        return false;
     }
 
-    private void updateModuleDynamicDependencies(ManipulationModel correspondingModule,
-            HashMap<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies) {
+    private void resetStrictConflictResolution(org.gradle.api.artifacts.Configuration configuration) {
+        if (configuration.getResolutionStrategy() instanceof DefaultResolutionStrategy) {
+            DefaultResolutionStrategy defaultResolutionStrategy = (DefaultResolutionStrategy) configuration
+                    .getResolutionStrategy();
 
-        allModuleDependencies.forEach((d, p) -> {
-            // we need to make sure that dynamic dependencies are stored with their original key
-            // in order for the manipulation plugin to be able to look them up properly
-            if (isNotBlank(d.getVersionString()) && DynamicVersionParser.isDynamic(d.getVersionString())) {
-                correspondingModule.getAlignedDependencies().put(d.toString(), p);
+            if (defaultResolutionStrategy.getConflictResolution() == ConflictResolution.strict) {
+                // failOnVersionConflict() sets this which causes our plugin to crash out. Reset to latest to make an attempt
+                // at continuing. As Gradle creates 'decorated' we can't use reflection to change the value back to the
+                // default. Therefore use preferProjectModules as its not eager-fail.
+                logger.warn("Detected use of conflict resolution strategy strict ; resetting to preferProjectModules.");
+
+                defaultResolutionStrategy.preferProjectModules();
             }
-        });
+        }
     }
 
-    private void updateModuleDependencies(ManipulationModel correspondingModule,
-            HashMap<RelaxedProjectVersionRef, ProjectVersionRef> allModuleDependencies,
-            AlignmentService.Response alignmentResponse) {
-
-        allModuleDependencies.forEach((d, p) -> {
-            final String newDependencyVersion = alignmentResponse.getAlignedVersionOfGav(p);
-            if (newDependencyVersion != null) {
-                final ProjectVersionRef newVersion = ProjectVersionFactory.withNewVersion(p, newDependencyVersion);
-                // we need to make sure that dynamic dependencies are stored with their original key
-                // in order for the manipulation plugin to be able to look them up properly
-                correspondingModule.getAlignedDependencies().put(d.toString(), newVersion);
-            }
-        });
+    /**
+     * Resolves a single configuration. This might be invoked concurrently for different configurations of the same
+     * project so it must not modify any shared state.
+     *
+     * @return the original dependency keys mapped to the resolved GAVs, in resolution order
+     */
+    private LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef> resolveConfiguration(Project project,
+            org.gradle.api.artifacts.Configuration configuration, LockedVersions lockedVersions,
+            DependencyResolutionEngine engine) {
+        // using getAllDependencies here instead of getDependencies because the later
+        // was returning an empty array for the root project of SpringLikeLayoutFunctionalTest
+        final DeclaredDependencies declaredDependencies = new DeclaredDependencies(configuration.getAllDependencies());
+
+        final DependencyResolutionEngine.Result resolution = engine.resolve(configuration, declaredDependencies);
+        verifyResolution(configuration, resolution);
+
+        return attributeResolvedDependencies(configuration, declaredDependencies, resolution.getResolved(),
+                lockedVersions);
     }
 
     /**
-     * Writes a maven settings file containing artifact repositories used by this project.
+     * A detached configuration only gets the dependencies of the configurations, so the configurations must not rely on
+     * anything else influencing their resolution.
+     *
+     * @return true if the configurations resolve the same in a single detached configuration
      */
-    private void writeRepositorySettingsFile(Collection<ArtifactRepository> repositories) {
-        Configuration config = ConfigCache.getOrCreate(Configuration.class);
-
-        String repositoriesFilePath = config.repositoriesFile();
-        if (!isEmpty(repositoriesFilePath)) {
-            File repositoriesFile;
-            if (Paths.get(repositoriesFilePath).isAbsolute()) {
-                repositoriesFile = new File(config.repositoriesFile());
-            } else {
-                repositoriesFile = new File(getProject().getRootDir(), repositoriesFilePath);
+    private boolean canBeMerged(Project project, List<org.gradle.api.artifacts.Configuration> configurations) {
+        for (org.gradle.api.artifacts.Configuration configuration : configurations) {
+            final String reason = getMergeBlocker(configuration);
+            if (reason != null) {
+                logger.info("Resolving the configurations of project {} separately as configuration {} has {}", project,
+                        configuration.getName(), reason);
+                return false;
             }
-
-            new RepositoryExporter(repositories).export(repositoriesFile);
-        } else {
-            getProject().getLogger().info("Repository export disabled.");
         }
+        return true;
     }
 
-    private HashMap<RelaxedProjectVersionRef, ProjectVersionRef> processAnyExistingManipulationFile(Project project,
-            HashMap<RelaxedProjectVersionRef, ProjectVersionRef> allDependencies) {
-        // If there is an existing manipulation file, also use this as potential candidates.
-        if (!ManipulationIO.getManipulationFilePath(project.getRootProject().getRootDir()).toFile().exists()) {
-            return allDependencies;
+    /**
+     * @return what prevents the configuration from being resolved as part of a detached configuration, or null
+     */
+    private static String getMergeBlocker(org.gradle.api.artifacts.Configuration configuration) {
+        final ResolutionStrategy resolutionStrategy = configuration.getResolutionStrategy();
+        if (!(resolutionStrategy instanceof ResolutionStrategyInternal)) {
+            return "an unknown resolution strategy";
         }
-        final ManipulationModel manipulationModel = ManipulationIO.readManipulationModel(project.getRootProject().getRootDir())
-                .findCorrespondingChild(project.getName());
-
-        Map<String, ProjectVersionRef> aligned = manipulationModel.getAlignedDependencies();
-
-        for (Map.Entry<String, ProjectVersionRef> modelDependencies : aligned.entrySet()) {
-
-            // If we don't have 2 then we must be stored an unversioned artifact. Only interested in full GAV right now.
-            if (StringUtils.countMatches(modelDependencies.getKey(), ":") == 2) {
-
-                ProjectVersionRef originalPvr = SimpleProjectVersionRef.parse(modelDependencies.getKey());
-
-                for (Map.Entry<RelaxedProjectVersionRef, ProjectVersionRef> entry : allDependencies.entrySet()) {
-
-                    RelaxedProjectVersionRef d = entry.getKey();
-
-                    if (d.equals(originalPvr)) {
-
-                        if (!modelDependencies.getValue().getVersionString().equals(entry.getValue().getVersionString())) {
-
-                            logger.info("Using existing model to update {} to {}", entry.getValue(),
-                                    modelDependencies.getValue());
-
-                            allDependencies.put(d, modelDependencies.getValue());
-                            break;
-                        }
-                    }
-                }
+        final ResolutionStrategyInternal strategy = (ResolutionStrategyInternal) resolutionStrategy;
+        if (!strategy.getForcedModules().isEmpty()) {
+            return "forced modules";
+        }
+        if (strategy.getDependencySubstitution().hasRules()) {
+            return "dependency substitution rules";
+        }
+        if (strategy.isDependencyLockingEnabled()) {
+            return "dependency locking";
+        }
+        if (!configuration.getAllDependencyConstraints().isEmpty()) {
+            return "dependency constraints";
+        }
+        for (org.gradle.api.artifacts.Configuration c : configuration.getHierarchy()) {
+            if (!c.getExcludeRules().isEmpty()) {
+                return "exclude rules";
             }
         }
-        return allDependencies;
+        for (ModuleDependency dependency : configuration.getAllDependencies().withType(ModuleDependency.class)) {
+            if (!dependency.getExcludeRules().isEmpty()) {
+                return "exclude rules";
+            }
+            final Category category = dependency.getAttributes().getAttribute(Category.CATEGORY_ATTRIBUTE);
+            if (category != null && !Category.LIBRARY.equals(category.getName())) {
+                return "platform dependencies";
+            }
+            if (dependency instanceof ExternalDependency && StringUtils.isBlank(dependency.getVersion())) {
+                return "dependencies without version";
+            }
+        }
+        return null;
     }
 
-    // we need to make sure that the name of the root project is stored if not set
-    // this is because the manipulation plugin must use the same name
-    // otherwise the model won't be found
-    // see also: https://discuss.gradle.org/t/rootproject-name-in-settings-gradle-vs-projectname-in-build-gradle/5704/4
-
-    private String writeProjectNameIfNeeded() throws IOException {
-        File rootDir = getProject().getRootDir();
-        File settingsGradle = new File(rootDir, "settings.gradle");
-
-        if (!settingsGradle.exists()) {
-            return null;
+    /**
+     * Resolves the union of the external dependencies declared by all the configurations of the project in a single
+     * detached configuration. The resolved versions are then attributed back to each configuration declaring them so
+     * that the result has the same shape as when every configuration is resolved on its own. Only used for
+     * configurations which {@link #canBeMerged(Project, List)}.
+     *
+     * @return for each configuration, the original dependency keys mapped to the resolved GAVs
+     */
+    private List<LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef>> resolveConfigurationsMerged(
+            Project project, List<org.gradle.api.artifacts.Configuration> configurations,
+            LockedVersions lockedVersions, DependencyResolutionEngine engine) {
+        final List<DeclaredDependencies> declared = new ArrayList<>();
+        final Map<String, Dependency> externalDependencies = new LinkedHashMap<>();
+        // GA -> declared version -> names of the configurations declaring it
+        final Map<String, Map<String, Set<String>>> declaredVersions = new HashMap<>();
+
+        for (org.gradle.api.artifacts.Configuration configuration : configurations) {
+            final DependencySet allDependencies = configuration.getAllDependencies();
+            declared.add(new DeclaredDependencies(allDependencies));
+
+            allDependencies.withType(ExternalDependency.class).forEach(d -> {
+                final String ga = d.getGroup() + ':' + d.getName();
+                externalDependencies.putIfAbsent(ga + ':' + d.getVersion(), d.copy());
+                declaredVersions.computeIfAbsent(ga, k -> new TreeMap<>())
+                        .computeIfAbsent(String.valueOf(d.getVersion()), k -> new TreeSet<>())
+                        .add(configuration.getName());
+            });
         }
 
-        List<String> lines = FileUtils.readLines(settingsGradle, Charset.defaultCharset());
-        for (String line : lines) {
-            if (line.contains("rootProject.name")) {
-                return null;
+        final org.gradle.api.artifacts.Configuration merged = project.getConfigurations()
+                .detachedConfiguration(externalDependencies.values().toArray(new Dependency[0]));
+        // Without attributes variant aware modules might not be resolvable so use the ones of the runtime classpath
+        configurations.stream()
+                .filter(c -> JavaPlugin.RUNTIME_CLASSPATH_CONFIGURATION_NAME.equals(c.getName()))
+                .findFirst()
+                .ifPresent(c -> c.getAttributes().keySet()
+                        .forEach(key -> copyAttribute(key, c.getAttributes(), merged.getAttributes())));
+
+        logger.info("Resolving {} external dependencies of {} configurations of project {} in a single configuration",
+                externalDependencies.size(), configurations.size(), project);
+
+        final DependencyResolutionEngine.Result resolution = engine.resolve(merged,
+                new DeclaredDependencies(merged.getAllDependencies()));
+        verifyResolution(merged, resolution);
+
+        resolution.getResolved().forEach(dep -> {
+            // the configurations declaring a static version other than the resolved one would have resolved to it
+            final Map<String, Set<String>> differing = new TreeMap<>(
+                    declaredVersions.getOrDefault(dep.getGroup() + ':' + dep.getName(), Collections.emptyMap()));
+            differing.keySet().removeIf(v -> v.equals(dep.getVersion()) || DynamicVersionParser.isDynamic(v));
+            if (!differing.isEmpty()) {
+                logger.warn("For project {}, {}:{} resolves to {} instead of the versions declared by configurations {} "
+                        + "; using {} for all of them", project, dep.getGroup(), dep.getName(), dep.getVersion(),
+                        differing, dep.getVersion());
             }
-        }
-
-        final String newProjectName = "rootProject";
+        });
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(settingsGradle, true))) {
-            // Ensure the marker is on a line by itself.
-            writer.newLine();
+        final List<LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef>> result = new ArrayList<>();
+        for (int i = 0; i < configurations.size(); i++) {
+            final DeclaredDependencies declaredDependencies = declared.get(i);
+            final List<ModuleVersionIdentifier> resolvedOfConfiguration = resolution.getResolved().stream()
+                    .filter(dep -> !declaredDependencies.find(dep.getGroup(), dep.getName()).isEmpty())
+                    .collect(Collectors.toList());
 
-            writer.write("rootProject.name='" + newProjectName + "'");
-            writer.newLine();
-            writer.flush();
+            result.add(attributeResolvedDependencies(configurations.get(i), declaredDependencies,
+                    resolvedOfConfiguration, lockedVersions));
         }
+        return result;
+    }
 
-        return newProjectName;
+    private static <T> void copyAttribute(Attribute<T> key, AttributeContainer from, AttributeContainer to) {
+        to.attribute(key, from.getAttribute(key));
     }
 
-    // for now we simply assume that the script is called gme.groovy and already resides in the project's root directory
-    private void runCustomGroovyScript(Configuration configuration, Project rootProject, ManipulationModel alignmentModel)
-            throws IOException, ManipulationException {
+    private void verifyResolution(org.gradle.api.artifacts.Configuration configuration,
+            DependencyResolutionEngine.Result resolution) {
+        final Configuration internalConfig = ConfigCache.getOrCreate(Configuration.class);
+        final Map<String, Throwable> unresolvedDependencies = resolution.getUnresolved();
 
-        final List<File> groovyFiles = new ArrayList<>();
-        final String[] scripts = configuration.groovyScripts();
+        if (unresolvedDependencies.size() > 0) {
+            if (internalConfig.ignoreUnresolvableDependencies()) {
+                logger.warn("For configuration {}; ignoring all unresolvable dependencies: {}", configuration.getName(),
+                        unresolvedDependencies.keySet());
+            } else {
 
-        if (scripts != null) {
-            int i = 0;
-            for (String script : scripts) {
-                logger.info("Attempting to read URL {} ", script);
-                File remote = new File(rootProject.getRootDir(), "gme-" + i + "groovy");
-                FileUtils.copyURLToFile(new URL(script), remote);
-                groovyFiles.add(remote);
+                logger.error("For configuration {}; unable to resolve all dependencies: {}", configuration.getName(),
+                        unresolvedDependencies.keySet());
+                unresolvedDependencies.forEach((selector, problem) -> logger.error("Unresolved had problem in {} with ",
+                        selector, problem));
+                throw new ManipulationUncheckedException("For configuration " + configuration.getName()
+                        + ", unable to resolve all project dependencies: " + unresolvedDependencies.keySet());
             }
         }
-        // Also check for a default gme.groovy as well as remote files.
-        groovyFiles.add(new File(rootProject.getRootDir(), "gme.groovy"));
+    }
 
-        for (File scriptFile : groovyFiles) {
+    /**
+     * @return the original dependency keys of the configuration mapped to the resolved GAVs, in resolution order
+     */
+    private LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef> attributeResolvedDependencies(
+            org.gradle.api.artifacts.Configuration configuration, DeclaredDependencies declaredDependencies,
+            Collection<ModuleVersionIdentifier> resolved, LockedVersions lockedVersions) {
+        final LinkedHashMap<RelaxedProjectVersionRef, ProjectVersionRef> result = new LinkedHashMap<>();
+        resolved.forEach(dep -> {
+            // if the dependency is locked, then we use that version instead of the resolved version from gradle as the
+            // copies of the configurations which are resolved ignore dependency locking
+            final String lockedVersion = lockedVersions.get(configuration,
+                    new SimpleProjectRef(dep.getGroup(), dep.getName()));
+            final String version = lockedVersion != null ? lockedVersion : dep.getVersion();
+            ProjectVersionRef pvr = ProjectVersionFactory.withGAVAndConfiguration(dep.getGroup(),
+                    dep.getName(),
+                    version, configuration.getName());
+
+            List<Dependency> originalDeps = declaredDependencies.find(dep.getGroup(), dep.getName());
+
+            // Not sure this can ever happen - would mean we have GA with multiple V.
+            if (originalDeps.size() > 1) {
+                logger.error("Found duplicate matching original dependencies {} for {}", originalDeps, dep);
+            }
 
-            if (scriptFile.exists()) {
-                final Binding binding = new Binding();
-                // We use the current class' classloader so the script has access to this plugin's API and the
-                // groovy API.
-                final GroovyShell groovyShell = new GroovyShell(this.getClass().getClassLoader(), binding);
-                final Script script = groovyShell.parse(scriptFile);
+            RelaxedProjectVersionRef relaxedProjectVersionRef;
+            // If we haven't found any original dependency we'll default to the current resolved dependency
+            // value. This might be possible if the dependency has come from a lock file.
+            if (originalDeps.size() == 0) {
+                relaxedProjectVersionRef = new RelaxedProjectVersionRef(dep);
+            } else {
+                relaxedProjectVersionRef = new RelaxedProjectVersionRef(originalDeps.get(0));
+            }
 
-                logger.info("Attempting to invoke groovy script {} ", scriptFile);
+            // TODO: What if originalDep has an empty version - then its from the BOM. Should we record it
+            // at all?
+            // if (StringUtils.isNotBlank(originalDep.getVersion())) {
 
-                // Inject the values via a new BaseScript so user's can have completion.
-                if (script instanceof GMEBaseScript) {
-                    ((GMEBaseScript) script).setValues(rootProject, alignmentModel);
-                } else {
-                    throw new ManipulationException("Cannot cast " + script + " to a BaseScript to set values.");
-                }
-                script.run();
-            }
-        }
+            result.put(relaxedProjectVersionRef, pvr);
+        });
+
+        return result;
     }
 }
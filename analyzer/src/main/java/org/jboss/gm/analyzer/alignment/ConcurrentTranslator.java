@@ -0,0 +1,515 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.apache.commons.lang.StringUtils.containsIgnoreCase;
+import static org.apache.commons.lang.StringUtils.isNotEmpty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.commonjava.maven.ext.io.rest.DefaultTranslator;
+import org.commonjava.maven.ext.io.rest.Translator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A {@link Translator} that sends the chunks of GAVs to the Dependency Analyzer concurrently, with at most
+ * {@code maxInFlight} requests being performed at the same time.
+ * <p>
+ * Like {@link DefaultTranslator}, a chunk that fails with a timeout or a server error is split into smaller chunks
+ * until {@code minChunkSize} is reached, and a chunk that can't be split any more is retried up to
+ * {@value #MAX_ATTEMPTS} times. Only the failed chunk is sent again, the results of the other chunks are kept.
+ * </p>
+ * <p>
+ * When {@link AdaptiveChunkSizer}s are provided, each instance has its own as their capacity differs. Each chunk is
+ * cut with the size advised by the sizer of the instance it is expected to be sent to, and the outcome of each
+ * request is reported to the sizer of the instance that handled it.
+ * </p>
+ * <p>
+ * With compression enabled the requests are sent compressed with gzip and compressed responses are accepted. Should
+ * the Dependency Analyzer reject a compressed request (with status 415, or 400 and a message about the content
+ * encoding), the request and all the following ones are sent uncompressed.
+ * </p>
+ * <p>
+ * The HTTP client, and therefore its kept alive connections, are shared by all the translations until the translator
+ * is closed.
+ * </p>
+ * <p>
+ * When several Dependency Analyzer instances are configured, each chunk is sent to the one chosen by
+ * {@link EndpointRouter} and fails over to the other instances before being considered as failed. With a hedge delay,
+ * a chunk that hasn't completed within the delay is also sent to another instance and the first response is used.
+ * </p>
+ */
+class ConcurrentTranslator implements Translator, Closeable {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final String LOOKUP_GAVS = "reports/lookup/gavs";
+
+    private static final int CONNECT_TIMEOUT = 30 * 1000;
+
+    private static final int SOCKET_TIMEOUT = 10 * 60 * 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final EndpointRouter router;
+
+    private final int chunkSize;
+
+    private final int minChunkSize;
+
+    private final int maxInFlight;
+
+    private final String repositoryGroup;
+
+    private final String incrementalSerialSuffix;
+
+    private final Supplier<String> headerContext;
+
+    private final Map<EndpointRouter.Endpoint, AdaptiveChunkSizer> sizers;
+
+    private final boolean compression;
+
+    private final AtomicBoolean compressRequests;
+
+    private final long hedgeDelay;
+
+    private final CloseableHttpClient client;
+
+    /**
+     * @param endpointUrls the URLs of the Dependency Analyzer instances
+     * @param chunkSize the number of GAVs sent in each request ; if not positive the GAVs are split in
+     *        {@code maxInFlight} chunks
+     * @param minChunkSize the size under which failed chunks are not split any more
+     * @param maxInFlight the maximum number of concurrent requests
+     * @param repositoryGroup the repository group the Dependency Analyzer looks up versions in
+     * @param incrementalSerialSuffix the suffix of the aligned versions
+     * @param headerContext supplies the log context sent with each request
+     * @param sizers creates, for the URL of each instance, the sizer choosing the size of the chunks sent to it
+     *        instead of {@code chunkSize} ; may be null
+     * @param compression whether requests are sent, and responses are accepted, compressed with gzip
+     * @param hedgeDelay the milliseconds after which a chunk is also sent to another instance ; if not positive chunks
+     *        are only sent to another instance when they fail
+     */
+    ConcurrentTranslator(List<String> endpointUrls, int chunkSize, int minChunkSize, int maxInFlight,
+            String repositoryGroup, String incrementalSerialSuffix, Supplier<String> headerContext,
+            Function<String, AdaptiveChunkSizer> sizers, boolean compression, long hedgeDelay) {
+        final List<String> lookupUrls = new ArrayList<>(endpointUrls.size());
+        endpointUrls.forEach(url -> lookupUrls.add((url.endsWith("/") ? url : url + '/') + LOOKUP_GAVS));
+        this.router = new EndpointRouter(lookupUrls, System::currentTimeMillis);
+        this.chunkSize = chunkSize;
+        this.minChunkSize = Math.max(1, minChunkSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.repositoryGroup = repositoryGroup;
+        this.incrementalSerialSuffix = incrementalSerialSuffix;
+        this.headerContext = headerContext;
+        this.sizers = new IdentityHashMap<>();
+        if (sizers != null) {
+            for (int i = 0; i < endpointUrls.size(); i++) {
+                this.sizers.put(router.getEndpoints().get(i), sizers.apply(endpointUrls.get(i)));
+            }
+        }
+        this.compression = compression;
+        this.compressRequests = new AtomicBoolean(compression);
+        this.hedgeDelay = router.size() > 1 ? hedgeDelay : 0;
+        this.client = createClient();
+    }
+
+    @Override
+    public Map<ProjectVersionRef, String> translateVersions(List<ProjectVersionRef> projects) {
+        // The successful chunks are merged concurrently into the result
+        final Map<ProjectVersionRef, String> result = new ConcurrentHashMap<>();
+        if (projects.isEmpty()) {
+            return result;
+        }
+
+        final Deque<Chunk> retries = new ArrayDeque<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(maxInFlight);
+        // Hedged chunks send their requests from this pool so that the chunk can wait for the first response
+        final ExecutorService hedgeExecutor = hedgeDelay > 0 ? Executors.newCachedThreadPool() : null;
+        // index of the first GAV that hasn't been sent yet ; chunks are cut when sent so that they follow the size
+        // chosen by the sizer
+        int next = 0;
+
+        try {
+            final CompletionService<Chunk> completionService = new ExecutorCompletionService<>(executor);
+            int inFlight = 0;
+
+            while (next < projects.size() || !retries.isEmpty() || inFlight > 0) {
+                while (inFlight < maxInFlight && (next < projects.size() || !retries.isEmpty())) {
+                    final Chunk chunk;
+                    if (retries.isEmpty()) {
+                        final int end = Math.min(projects.size(), next + getChunkSize(projects.size()));
+                        chunk = new Chunk(projects.subList(next, end), 1);
+                        next = end;
+                    } else {
+                        chunk = retries.poll();
+                    }
+                    completionService.submit(() -> chunk.lookup(hedgeExecutor, result));
+                    inFlight++;
+                }
+
+                final Chunk chunk = completionService.take().get();
+                inFlight--;
+
+                chunk.failedOn.forEach(endpoint -> {
+                    if (sizers.containsKey(endpoint)) {
+                        sizers.get(endpoint).onFailure(chunk.gavs.size());
+                    }
+                });
+                if (chunk.success) {
+                    if (sizers.containsKey(chunk.servedBy)) {
+                        sizers.get(chunk.servedBy).onSuccess(chunk.gavs.size(), chunk.latency);
+                    }
+                } else {
+                    retries.addAll(chunk.retry());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManipulationUncheckedException("Interrupted while calling REST endpoint " + getUrls(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ManipulationUncheckedException("Unable to call REST endpoint " + getUrls(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (hedgeExecutor != null) {
+                hedgeExecutor.shutdownNow();
+            }
+            sizers.values().forEach(AdaptiveChunkSizer::save);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    /**
+     * @return a client whose connections are kept alive and shared by the chunks of all translations, so that only
+     *         the first {@code maxInFlight} requests to each instance pay for establishing a connection
+     */
+    private CloseableHttpClient createClient() {
+        // A hedged chunk might use a connection to an instance that is also used by another chunk
+        final int maxPerRoute = hedgeDelay > 0 ? 2 * maxInFlight : maxInFlight;
+        final HttpClientBuilder builder = HttpClients.custom()
+                .setMaxConnPerRoute(maxPerRoute)
+                .setMaxConnTotal(maxPerRoute * router.size())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE);
+        if (!compression) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    private List<String> getUrls() {
+        final List<String> urls = new ArrayList<>(router.size());
+        router.getEndpoints().forEach(endpoint -> urls.add(endpoint.getUrl()));
+        return urls;
+    }
+
+    private int getChunkSize(int total) {
+        if (!sizers.isEmpty()) {
+            // Other chunks completing in the meantime might make the router choose another instance, the size is only
+            // a best guess
+            return sizers.get(router.select(Collections.emptyList())).getSize();
+        }
+        return chunkSize > 0 ? chunkSize : (total + maxInFlight - 1) / maxInFlight;
+    }
+
+    private byte[] requestBody(List<ProjectVersionRef> gavs) throws IOException {
+        final List<Map<String, String>> request = new ArrayList<>(gavs.size());
+        for (ProjectVersionRef gav : gavs) {
+            final Map<String, String> entry = new LinkedHashMap<>();
+            entry.put("groupId", gav.getGroupId());
+            entry.put("artifactId", gav.getArtifactId());
+            entry.put("version", gav.getVersionString());
+            request.add(entry);
+        }
+
+        final Map<String, Object> body = new LinkedHashMap<>();
+        body.put("productNames", Collections.emptyList());
+        body.put("productVersionIds", Collections.emptyList());
+        body.put("repositoryGroup", repositoryGroup);
+        if (isNotEmpty(incrementalSerialSuffix)) {
+            body.put("versionSuffix", incrementalSerialSuffix);
+        }
+        body.put("gavs", request);
+        return mapper.writeValueAsBytes(body);
+    }
+
+    private static ByteArrayEntity gzip(byte[] body) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+
+        final ByteArrayEntity entity = new ByteArrayEntity(out.toByteArray(), ContentType.APPLICATION_JSON);
+        entity.setContentEncoding("gzip");
+        return entity;
+    }
+
+    private static boolean isRecoverable(int status) {
+        return status >= HttpStatus.SC_INTERNAL_SERVER_ERROR || status == HttpStatus.SC_REQUEST_TIMEOUT;
+    }
+
+    /**
+     * A chunk of GAVs along with the outcome of its last lookup.
+     */
+    private class Chunk {
+        private final List<ProjectVersionRef> gavs;
+
+        private final int attempt;
+
+        private boolean success;
+
+        private String failure;
+
+        private long latency;
+
+        private EndpointRouter.Endpoint servedBy;
+
+        private final List<EndpointRouter.Endpoint> failedOn = new ArrayList<>();
+
+        Chunk(List<ProjectVersionRef> gavs, int attempt) {
+            this.gavs = gavs;
+            this.attempt = attempt;
+        }
+
+        /**
+         * Sends the chunk to the best instance, failing over to the other ones until one of them succeeds.
+         */
+        Chunk lookup(ExecutorService hedgeExecutor, Map<ProjectVersionRef, String> translationMap)
+                throws IOException, InterruptedException {
+            final List<EndpointRouter.Endpoint> tried = new ArrayList<>(router.size());
+            EndpointRouter.Endpoint endpoint;
+
+            while ((endpoint = router.select(tried)) != null) {
+                tried.add(endpoint);
+                final Attempt attempt = hedgeExecutor == null ? new Attempt(endpoint).send(gavs)
+                        : hedge(hedgeExecutor, endpoint, tried);
+
+                if (attempt.success) {
+                    // Only the translations of the attempt whose response is used are kept
+                    translationMap.putAll(attempt.translations);
+                    success = true;
+                    latency = attempt.latency;
+                    servedBy = attempt.endpoint;
+                    return this;
+                }
+                failedOn.add(attempt.endpoint);
+                failure = attempt.failure + " from " + attempt.endpoint;
+                if (router.size() > tried.size()) {
+                    logger.warn("Chunk of {} GAVs failed with {} ; failing over to another REST endpoint", gavs.size(),
+                            failure);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Sends the chunk to the endpoint and, if it hasn't responded within the hedge delay, to another one as well.
+         *
+         * @return the first successful attempt, or a failed one if they all failed
+         */
+        private Attempt hedge(ExecutorService hedgeExecutor, EndpointRouter.Endpoint endpoint,
+                List<EndpointRouter.Endpoint> tried) throws IOException, InterruptedException {
+            final CompletionService<Attempt> attempts = new ExecutorCompletionService<>(hedgeExecutor);
+            final List<Attempt> pending = new ArrayList<>(2);
+            pending.add(new Attempt(endpoint));
+            attempts.submit(() -> pending.get(0).send(gavs));
+
+            Future<Attempt> done = attempts.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                final EndpointRouter.Endpoint second = router.select(tried);
+                if (second != null) {
+                    logger.debug("Chunk of {} GAVs hasn't completed within {} ms ; also sending it to {}",
+                            gavs.size(), hedgeDelay, second);
+                    tried.add(second);
+                    final Attempt hedged = new Attempt(second);
+                    pending.add(hedged);
+                    attempts.submit(() -> hedged.send(gavs));
+                }
+                done = attempts.take();
+            }
+
+            Attempt result = get(done);
+            for (int remaining = pending.size() - 1; remaining > 0 && !result.success; remaining--) {
+                result = get(attempts.take());
+            }
+            // The slower instance might still be processing the chunk
+            pending.forEach(Attempt::abort);
+            return result;
+        }
+
+        private Attempt get(Future<Attempt> attempt) throws IOException, InterruptedException {
+            try {
+                return attempt.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        List<Chunk> retry() {
+            if (gavs.size() > minChunkSize) {
+                final int size = Math.max(minChunkSize,
+                        (gavs.size() + DefaultTranslator.CHUNK_SPLIT_COUNT - 1) / DefaultTranslator.CHUNK_SPLIT_COUNT);
+                logger.warn("Chunk of {} GAVs failed with {} ; splitting it into chunks of {} GAVs", gavs.size(),
+                        failure, size);
+
+                final List<Chunk> chunks = new ArrayList<>();
+                for (int i = 0; i < gavs.size(); i += size) {
+                    chunks.add(new Chunk(gavs.subList(i, Math.min(i + size, gavs.size())), 1));
+                }
+                return chunks;
+            }
+            if (attempt < MAX_ATTEMPTS) {
+                logger.warn("Chunk of {} GAVs failed with {} ; retrying it", gavs.size(), failure);
+                return Collections.singletonList(new Chunk(gavs, attempt + 1));
+            }
+            throw new ManipulationUncheckedException(String.format(
+                    "Chunk of %s GAVs failed %s times, last with %s", gavs.size(), attempt, failure));
+        }
+    }
+
+    /**
+     * A single request of a chunk to an instance. The response is parsed into the attempt's own translations so that
+     * a response that fails to be parsed, or the response of an attempt that lost to another, is simply dropped.
+     */
+    private class Attempt {
+        private final EndpointRouter.Endpoint endpoint;
+
+        private volatile HttpPost post;
+
+        private volatile boolean success;
+
+        private volatile Map<ProjectVersionRef, String> translations = Collections.emptyMap();
+
+        private String failure;
+
+        private long latency;
+
+        Attempt(EndpointRouter.Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        Attempt send(List<ProjectVersionRef> gavs) throws IOException {
+            final HttpPost post = new HttpPost(endpoint.getUrl());
+            post.setConfig(RequestConfig.custom()
+                    .setConnectTimeout(CONNECT_TIMEOUT)
+                    .setSocketTimeout(SOCKET_TIMEOUT)
+                    .build());
+            post.setHeader("Accept", ContentType.APPLICATION_JSON.getMimeType());
+            post.setHeader("Log-Context", headerContext.get());
+            final byte[] body = requestBody(gavs);
+            final boolean compressed = compressRequests.get();
+            post.setEntity(compressed ? gzip(body) : new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+            this.post = post;
+
+            logger.debug("Sending chunk of {} GAVs to {}", gavs.size(), endpoint);
+            final long start = System.currentTimeMillis();
+            boolean rejectedCompression = false;
+            try (CloseableHttpResponse response = client.execute(post)) {
+                final int status = response.getStatusLine().getStatusCode();
+
+                if (compressed && status == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE) {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    rejectedCompression = true;
+                } else if (status == HttpStatus.SC_OK) {
+                    final Map<ProjectVersionRef, String> parsed = new HashMap<>();
+                    try (InputStream content = response.getEntity().getContent()) {
+                        LookupResponseParser.parse(content, parsed);
+                    }
+                    translations = parsed;
+                    success = true;
+                } else if (isRecoverable(status)) {
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    failure = "status " + status;
+                } else {
+                    final String message = EntityUtils.toString(response.getEntity());
+                    // Some servers only report an unsupported content encoding as a bad request
+                    if (compressed && status == HttpStatus.SC_BAD_REQUEST && (containsIgnoreCase(message, "encoding")
+                            || containsIgnoreCase(message, "gzip"))) {
+                        rejectedCompression = true;
+                    } else {
+                        throw new ManipulationUncheckedException(String.format(
+                                "Received response status %s with message %s from REST endpoint %s", status, message,
+                                endpoint));
+                    }
+                }
+            } catch (IOException e) {
+                // Timeouts and connection failures are handled like server errors
+                failure = e.toString();
+            }
+
+            if (rejectedCompression) {
+                if (compressRequests.compareAndSet(true, false)) {
+                    logger.warn("REST endpoint {} doesn't accept compressed requests ; sending them uncompressed",
+                            endpoint);
+                }
+                return send(gavs);
+            }
+            latency = System.currentTimeMillis() - start;
+
+            if (success) {
+                router.onSuccess(endpoint, latency);
+            } else if (!post.isAborted()) {
+                router.onFailure(endpoint);
+            }
+            return this;
+        }
+
+        void abort() {
+            final HttpPost current = post;
+            if (!success && current != null) {
+                current.abort();
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.DependencyConstraint;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalDependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.artifacts.repositories.IvyArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache that is stored in the root project extensions and that holds the resolution results of configurations keyed
+ * by a fingerprint of everything that influences their first level dependencies: the declared dependencies,
+ * constraints, excludes, resolution strategy, attributes, lock state and repositories of the project. Configurations
+ * (of the same or of sibling projects) with the same fingerprint are only resolved once.
+ * <p>
+ * Configurations using dependency substitution or component selection rules are never cached as those rules can't
+ * be fingerprinted. Project wide component metadata rules are assumed to be the same for all projects.
+ * </p>
+ */
+class ConfigurationFingerprintCache {
+
+    private static final String NAME = "configurationFingerprintCache";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ConcurrentMap<String, CompletableFuture<DependencyResolutionEngine.Result>> results = new ConcurrentHashMap<>();
+
+    private final AtomicInteger resolutions = new AtomicInteger();
+
+    private final AtomicInteger saved = new AtomicInteger();
+
+    /**
+     * Retrieves the cache given any project. It will access the root project, check if the
+     * cache exists and create it if required.
+     *
+     * @param project the {@link Project} reference.
+     * @return the ConfigurationFingerprintCache object.
+     */
+    static ConfigurationFingerprintCache getCache(Project project) {
+        final Project rootProject = project.getRootProject();
+
+        synchronized (rootProject) {
+            if (!rootProject.getExtensions().getExtraProperties().has(NAME)) {
+                rootProject.getExtensions().getExtraProperties().set(NAME, new ConfigurationFingerprintCache());
+            }
+            return (ConfigurationFingerprintCache) rootProject.getExtensions().getExtraProperties().get(NAME);
+        }
+    }
+
+    /**
+     * @param project the project owning the configurations that will be resolved
+     * @param engine the engine that performs the actual resolution
+     * @return an engine that only delegates to {@code engine} for configurations that haven't been seen before
+     */
+    DependencyResolutionEngine decorate(Project project, DependencyResolutionEngine engine) {
+        return (configuration, declaredDependencies) -> resolve(project, configuration, declaredDependencies, engine);
+    }
+
+    /**
+     * @return the number of resolutions that were avoided because a configuration with the same fingerprint had
+     *         already been resolved
+     */
+    int getSavedResolutions() {
+        return saved.get();
+    }
+
+    /**
+     * @return the number of resolutions that were requested, including the ones that were avoided
+     */
+    int getRequestedResolutions() {
+        return resolutions.get();
+    }
+
+    private DependencyResolutionEngine.Result resolve(Project project, Configuration configuration,
+            DeclaredDependencies declaredDependencies, DependencyResolutionEngine engine) {
+        resolutions.incrementAndGet();
+
+        final String fingerprint = fingerprint(project, configuration);
+        if (fingerprint == null) {
+            logger.debug("Configuration {} of {} uses rules that can't be fingerprinted", configuration.getName(),
+                    project);
+            return engine.resolve(configuration, declaredDependencies);
+        }
+
+        final CompletableFuture<DependencyResolutionEngine.Result> future = new CompletableFuture<>();
+        final CompletableFuture<DependencyResolutionEngine.Result> existing = results.putIfAbsent(fingerprint, future);
+
+        if (existing != null) {
+            saved.incrementAndGet();
+            logger.debug("Reusing resolution with fingerprint {} for configuration {} of {}", fingerprint,
+                    configuration.getName(), project);
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        try {
+            final DependencyResolutionEngine.Result result = engine.resolve(configuration, declaredDependencies);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the fingerprint of the configuration or null if the configuration can't be fingerprinted
+     */
+    private String fingerprint(Project project, Configuration configuration) {
+        if (!(configuration.getResolutionStrategy() instanceof ResolutionStrategyInternal)) {
+            return null;
+        }
+        final ResolutionStrategyInternal resolutionStrategy = (ResolutionStrategyInternal) configuration
+                .getResolutionStrategy();
+        if (resolutionStrategy.getDependencySubstitution().hasRules()
+                || !resolutionStrategy.getComponentSelection().getRules().isEmpty()) {
+            return null;
+        }
+
+        final List<String> elements = new ArrayList<>();
+
+        // Declaration order doesn't influence which versions are selected so all sets are sorted in order for
+        // configurations that extend the same configurations in a different order to match.
+        elements.add("dependencies");
+        elements.addAll(sorted(configuration.getAllDependencies().stream().map(this::describe)));
+        elements.add("constraints");
+        elements.addAll(sorted(configuration.getAllDependencyConstraints().stream().map(this::describe)));
+        elements.add("excludes");
+        elements.addAll(sorted(configuration.getHierarchy().stream()
+                .flatMap(c -> c.getExcludeRules().stream())
+                .map(this::describe)));
+        elements.add("attributes");
+        elements.add(describe(configuration.getAttributes()));
+        elements.add("strategy");
+        elements.add(String.valueOf(resolutionStrategy.getConflictResolution()));
+        elements.addAll(sorted(resolutionStrategy.getForcedModules().stream().map(this::describe)));
+        if (resolutionStrategy.isDependencyLockingEnabled()) {
+            elements.add("lockfile");
+            elements.add(readLockfile(project, configuration));
+        }
+        elements.add("repositories");
+        // Repository order is significant
+        project.getRepositories().forEach(r -> elements.add(describe(r)));
+
+        return DigestUtils.sha256Hex(String.join("\n", elements));
+    }
+
+    private String describe(Dependency dependency) {
+        final StringBuilder sb = new StringBuilder(dependency.getClass().getName())
+                .append(':').append(dependency.getGroup())
+                .append(':').append(dependency.getName())
+                .append(':').append(dependency.getVersion());
+
+        if (dependency instanceof ProjectDependency) {
+            sb.append(":project=").append(((ProjectDependency) dependency).getDependencyProject().getPath());
+        }
+        if (dependency instanceof ExternalDependency) {
+            final ExternalDependency externalDependency = (ExternalDependency) dependency;
+            sb.append(":force=").append(externalDependency.isForce())
+                    .append(":constraint=").append(externalDependency.getVersionConstraint().getDisplayName());
+        }
+        if (dependency instanceof ModuleDependency) {
+            final ModuleDependency moduleDependency = (ModuleDependency) dependency;
+            sb.append(":transitive=").append(moduleDependency.isTransitive())
+                    .append(":target=").append(moduleDependency.getTargetConfiguration())
+                    .append(":excludes=").append(sorted(moduleDependency.getExcludeRules().stream().map(this::describe)))
+                    .append(":artifacts=").append(sorted(moduleDependency.getArtifacts().stream().map(this::describe)))
+                    .append(":capabilities=").append(sorted(moduleDependency.getRequestedCapabilities().stream()
+                            .map(c -> c.getGroup() + ':' + c.getName() + ':' + c.getVersion())))
+                    .append(":attributes=").append(describe(moduleDependency.getAttributes()));
+        }
+        return sb.toString();
+    }
+
+    private String describe(DependencyConstraint constraint) {
+        return constraint.getGroup() + ':' + constraint.getName() + ':'
+                + constraint.getVersionConstraint().getDisplayName() + ':' + describe(constraint.getAttributes());
+    }
+
+    private String describe(ModuleVersionSelector selector) {
+        return selector.getGroup() + ':' + selector.getName() + ':' + selector.getVersion();
+    }
+
+    private String describe(ExcludeRule excludeRule) {
+        return excludeRule.getGroup() + ':' + excludeRule.getModule();
+    }
+
+    private String describe(DependencyArtifact artifact) {
+        return artifact.getName() + ':' + artifact.getType() + ':' + artifact.getExtension() + ':'
+                + artifact.getClassifier();
+    }
+
+    private String describe(AttributeContainer attributes) {
+        return sorted(attributes.keySet().stream()
+                .map(k -> k.getName() + '=' + attributes.getAttribute(k))).toString();
+    }
+
+    private String describe(ArtifactRepository repository) {
+        final StringBuilder sb = new StringBuilder(repository.getClass().getName()).append(':')
+                .append(repository.getName());
+
+        if (repository instanceof MavenArtifactRepository) {
+            final MavenArtifactRepository maven = (MavenArtifactRepository) repository;
+            sb.append(':').append(maven.getUrl()).append(':').append(maven.getArtifactUrls());
+        } else if (repository instanceof IvyArtifactRepository) {
+            sb.append(':').append(((IvyArtifactRepository) repository).getUrl());
+        } else if (repository instanceof FlatDirectoryArtifactRepository) {
+            sb.append(':').append(((FlatDirectoryArtifactRepository) repository).getDirs());
+        }
+        return sb.toString();
+    }
+
+    private String readLockfile(Project project, Configuration configuration) {
+        final File lockfile = project.getProjectDir().toPath()
+                .resolve("gradle/dependency-locks")
+                .resolve(configuration.getName() + ".lockfile")
+                .toFile();
+        if (!lockfile.exists()) {
+            return "";
+        }
+        try {
+            return FileUtils.readFileToString(lockfile, "UTF-8");
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read lockfile " + lockfile, e);
+        }
+    }
+
+    private static List<String> sorted(Stream<String> values) {
+        return values.sorted().collect(Collectors.toList());
+    }
+}
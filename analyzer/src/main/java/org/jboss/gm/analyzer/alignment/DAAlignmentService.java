@@ -3,18 +3,27 @@ package org.jboss.gm.analyzer.alignment;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
 import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.NONE;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.apache.commons.codec.binary.Base32;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.commonjava.maven.ext.core.state.DependencyState;
 import org.commonjava.maven.ext.io.rest.DefaultTranslator;
 import org.commonjava.maven.ext.io.rest.Translator;
+import org.gradle.api.Project;
 import org.jboss.gm.common.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,7 +34,9 @@ import org.slf4j.LoggerFactory;
  *
  * The heavy lifting is done by {@link org.commonjava.maven.ext.io.rest.DefaultTranslator}
  */
-public class DAAlignmentService implements AlignmentService {
+public class DAAlignmentService implements AlignmentService, Closeable {
+
+    private static final String NAME = "gmeDAAlignmentService";
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -33,7 +44,80 @@ public class DAAlignmentService implements AlignmentService {
 
     private final DependencyState.DependencyPrecedence dependencySource;
 
+    private final DATranslationCache translationCache;
+
+    private final DAMemoCache memoCache;
+
+    private final File snapshotExport;
+
+    /**
+     * The aligned versions of the dependencies of all the requests, exported to {@link #snapshotExport} on close.
+     */
+    private final Map<ProjectVersionRef, String> exportedTranslations = new ConcurrentHashMap<>();
+
     public DAAlignmentService(Configuration configuration) {
+        dependencySource = configuration.dependencyConfiguration();
+
+        if (isNotEmpty(configuration.restReplayLog())) {
+            restEndpoint = TranslationLog.replaying(new File(configuration.restReplayLog()));
+        } else if (isNotEmpty(configuration.restRecordLog())) {
+            restEndpoint = TranslationLog.recording(getTranslator(configuration), new File(configuration.restRecordLog()));
+        } else {
+            restEndpoint = getTranslator(configuration);
+        }
+
+        if (isNotEmpty(configuration.restReplayLog()) || isNotEmpty(configuration.restRecordLog())) {
+            // The caches would answer GAVs, possibly from previous builds, that never reach the log
+            logger.info("Not using the DA caches as the Dependency Analyzer requests are recorded or replayed");
+            translationCache = null;
+            memoCache = null;
+        } else {
+            translationCache = DATranslationCache.fromConfiguration(configuration);
+            memoCache = DAMemoCache.fromConfiguration(configuration);
+        }
+        snapshotExport = isNotEmpty(configuration.alignmentSnapshotExport())
+                ? new File(configuration.alignmentSnapshotExport())
+                : null;
+    }
+
+    /**
+     * Retrieves the service of the build, creating it if required. The service is shared by the alignment tasks of all
+     * the projects and closed when the build finishes, so that the connections of its REST client can be reused by all
+     * the calls made during the build and the alignment snapshot is only exported once.
+     *
+     * @param rootProject the root project of the build
+     * @param configuration the configuration
+     * @return the service
+     */
+    static DAAlignmentService forBuild(Project rootProject, Configuration configuration) {
+        synchronized (rootProject) {
+            if (!rootProject.getExtensions().getExtraProperties().has(NAME)) {
+                final DAAlignmentService service = new DAAlignmentService(configuration);
+                rootProject.getGradle().buildFinished(result -> service.close());
+                rootProject.getExtensions().getExtraProperties().set(NAME, service);
+            }
+            return (DAAlignmentService) rootProject.getExtensions().getExtraProperties().get(NAME);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (snapshotExport != null && !exportedTranslations.isEmpty()) {
+            logger.info("Exporting the aligned versions of {} dependencies to {}", exportedTranslations.size(),
+                    snapshotExport);
+            OfflineAlignmentService.exportTranslations(snapshotExport, exportedTranslations);
+            exportedTranslations.clear();
+        }
+        if (restEndpoint instanceof Closeable) {
+            try {
+                ((Closeable) restEndpoint).close();
+            } catch (IOException e) {
+                logger.warn("Unable to close the REST client", e);
+            }
+        }
+    }
+
+    private static Translator getTranslator(Configuration configuration) {
         final String endpointUrl = configuration.daEndpoint();
 
         if (endpointUrl == null) {
@@ -41,9 +125,23 @@ public class DAAlignmentService implements AlignmentService {
                     String.format("'%s' must be configured in order for model to work", Configuration.DA));
         }
 
-        dependencySource = configuration.dependencyConfiguration();
-
-        restEndpoint = new GradleDefaultTranslator(
+        // Only the concurrent translator supports several instances
+        final List<String> endpointUrls = Arrays.asList(endpointUrl.trim().split("\\s*,\\s*"));
+        if (endpointUrls.size() > 1 || configuration.restMaxInFlight() > 1 || configuration.restAdaptiveChunkSize()
+                || configuration.restCompression()) {
+            return new ConcurrentTranslator(
+                    endpointUrls,
+                    configuration.restMaxSize(),
+                    DefaultTranslator.CHUNK_SPLIT_COUNT,
+                    configuration.restMaxInFlight(),
+                    configuration.restRepositoryGroup(),
+                    configuration.versionIncrementalSuffix(),
+                    () -> GradleDefaultTranslator.headerContext(configuration.logContext()),
+                    configuration.restAdaptiveChunkSize() ? url -> getChunkSizer(configuration, url) : null,
+                    configuration.restCompression(),
+                    configuration.restHedgeDelay());
+        }
+        return new GradleDefaultTranslator(
                 endpointUrl,
                 Translator.RestProtocol.CURRENT,
                 configuration.restMaxSize(),
@@ -53,27 +151,87 @@ public class DAAlignmentService implements AlignmentService {
                 configuration.logContext());
     }
 
+    private static AdaptiveChunkSizer getChunkSizer(Configuration configuration, String endpointUrl) {
+        final int maxSize = configuration.restMaxSize() > 0 ? configuration.restMaxSize()
+                : AdaptiveChunkSizer.DEFAULT_MAX_SIZE;
+        // Each Dependency Analyzer instance has its own state as their capacity differs, which is kept when the list of
+        // instances changes
+        final File stateFile = new File(configuration.restChunkStateDirectory(),
+                "chunk-size-" + DigestUtils.sha256Hex(endpointUrl) + ".properties");
+
+        return new AdaptiveChunkSizer(stateFile, Math.min(maxSize, AdaptiveChunkSizer.DEFAULT_INITIAL_SIZE),
+                DefaultTranslator.CHUNK_SPLIT_COUNT, maxSize, configuration.restChunkLatencyTarget());
+    }
+
     @Override
     public Response align(Request request) {
-        final List<ProjectVersionRef> translateRequest = new ArrayList<>(request.getDependencies().size() + 1);
+        return align(request, translationCache == null && memoCache == null ? null : this::translateDependencies);
+    }
 
+    /**
+     * @param request the request
+     * @param dependencyTranslator translates the dependencies separately from the project, or null to translate them
+     *        along with the project
+     * @return the response
+     */
+    Response align(Request request, Function<List<ProjectVersionRef>, Map<ProjectVersionRef, String>> dependencyTranslator) {
         if (dependencySource == NONE) {
             logger.warn("No dependencySource configured ; unable to call endpoint");
             return new Response(request.getProject(), Collections.emptyMap());
         }
 
-        translateRequest.addAll(request.getProject());
-        translateRequest.addAll(request.getDependencies());
+        final Map<ProjectVersionRef, String> translationMap;
+        if (dependencyTranslator == null) {
+            final List<ProjectVersionRef> translateRequest = new ArrayList<>(request.getDependencies().size() + 1);
+            translateRequest.addAll(request.getProject());
+            translateRequest.addAll(request.getDependencies());
+            translationMap = translateVersions(translateRequest);
+        } else {
+            // The aligned version of the project changes with every build, so it must never come from a cache
+            translationMap = new HashMap<>(translateVersions(new ArrayList<>(request.getProject())));
+            translationMap.putAll(dependencyTranslator.apply(new ArrayList<>(request.getDependencies())));
+        }
+
+        if (snapshotExport != null) {
+            // The aligned version of the project changes with every build, it is of no use to later builds
+            request.getDependencies().forEach(gav -> {
+                final String alignedVersion = translationMap.get(gav);
+                if (alignedVersion != null) {
+                    exportedTranslations.put(gav, alignedVersion);
+                }
+            });
+        }
+
+        return new Response(request.getProject(), translationMap);
+    }
+
+    /**
+     * @param dependencies the dependencies to translate, through the caches that are configured
+     * @return the aligned version of the dependencies that have one
+     */
+    Map<ProjectVersionRef, String> translateDependencies(List<ProjectVersionRef> dependencies) {
+        if (memoCache == null) {
+            return translateThroughTranslationCache(dependencies);
+        }
+        return memoCache.translateVersions(dependencies, this::translateThroughTranslationCache);
+    }
+
+    private Map<ProjectVersionRef, String> translateThroughTranslationCache(List<ProjectVersionRef> dependencies) {
+        if (translationCache == null) {
+            return translateVersions(dependencies);
+        }
+        return translationCache.translateVersions(dependencies, this::translateVersions);
+    }
 
+    private Map<ProjectVersionRef, String> translateVersions(List<ProjectVersionRef> translateRequest) {
         logger.debug("Passing {} GAVs following into the REST client api {} ", translateRequest.size(), translateRequest);
         logger.info("Calling REST client with {} GAVS...", translateRequest.size());
         final Map<ProjectVersionRef, String> translationMap = restEndpoint.translateVersions(translateRequest);
         logger.info("REST Client returned {} ", translationMap);
-
-        return new Response(request.getProject(), translationMap);
+        return translationMap;
     }
 
-    private static class Response implements AlignmentService.Response {
+    static class Response implements AlignmentService.Response {
 
         private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -106,7 +264,7 @@ public class DAAlignmentService implements AlignmentService {
     }
 
     static class GradleDefaultTranslator extends DefaultTranslator {
-        private final Random RANDOM = new Random();
+        private static final Random RANDOM = new Random();
 
         private final String logContext;
 
@@ -118,6 +276,10 @@ public class DAAlignmentService implements AlignmentService {
 
         @Override
         protected String getHeaderContext() {
+            return headerContext(logContext);
+        }
+
+        static String headerContext(String logContext) {
             String headerContext;
 
             if (isNotEmpty(logContext)) {
@@ -0,0 +1,156 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In memory cache of the versions returned by the Dependency Analyzer, including the GAVs that have no aligned
+ * version. As the instances are held statically they live as long as the Gradle daemon, so that running the alignment
+ * again in a warm daemon doesn't repeat the same lookups. Like {@link DATranslationCache}, each combination of DA
+ * instance, repository group and suffix has its own cache, holding at most {@code restMemoCacheSize} GAVs: the least
+ * recently used ones are evicted first.
+ * <p>
+ * As in {@link DATranslationCache}, entries expire after {@code restCacheTtl} seconds, or {@code restCacheNegativeTtl}
+ * seconds for GAVs that had no aligned version, so that a long lived daemon eventually sees the versions published
+ * since. {@code restMemoCacheClear} discards all the entries.
+ * </p>
+ * <p>
+ * Instances are safe for concurrent use.
+ * </p>
+ */
+class DAMemoCache {
+
+    private static final Map<String, DAMemoCache> CACHES = new ConcurrentHashMap<>();
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final LinkedHashMap<ProjectVersionRef, Entry> entries;
+
+    private final long ttl;
+
+    private final long negativeTtl;
+
+    private final LongSupplier clock;
+
+    DAMemoCache(int maxSize, long ttl, long negativeTtl, LongSupplier clock) {
+        this.entries = new LinkedHashMap<ProjectVersionRef, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ProjectVersionRef, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * @param configuration the configuration
+     * @return the cache of the configured endpoint or null if the memo cache is disabled
+     */
+    static DAMemoCache fromConfiguration(Configuration configuration) {
+        if (configuration.restMemoCacheClear()) {
+            clear();
+        }
+        if (configuration.restMemoCacheSize() <= 0) {
+            return null;
+        }
+
+        final String key = String.join("\n",
+                configuration.daEndpoint(),
+                String.valueOf(configuration.restRepositoryGroup()),
+                configuration.versionIncrementalSuffix(),
+                String.valueOf(configuration.restMemoCacheSize()),
+                String.valueOf(configuration.restCacheTtl()),
+                String.valueOf(configuration.restCacheNegativeTtl()));
+        return CACHES.computeIfAbsent(key, k -> new DAMemoCache(
+                configuration.restMemoCacheSize(),
+                TimeUnit.SECONDS.toMillis(configuration.restCacheTtl()),
+                TimeUnit.SECONDS.toMillis(configuration.restCacheNegativeTtl()),
+                System::currentTimeMillis));
+    }
+
+    /**
+     * Answers the GAVs from the cache and only passes the remaining ones to {@code translator}. The results of the
+     * translator are then added to the cache.
+     *
+     * @param gavs the GAVs to translate
+     * @param translator the function performing the actual translation
+     * @return the aligned versions of the GAVs which have one
+     */
+    Map<ProjectVersionRef, String> translateVersions(List<ProjectVersionRef> gavs,
+            Function<List<ProjectVersionRef>, Map<ProjectVersionRef, String>> translator) {
+        final long now = clock.getAsLong();
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        final List<ProjectVersionRef> misses = new ArrayList<>();
+
+        synchronized (entries) {
+            for (ProjectVersionRef gav : gavs) {
+                final Entry entry = entries.get(gav);
+                if (entry == null || entry.isExpired(now)) {
+                    misses.add(gav);
+                } else if (entry.alignedVersion != null) {
+                    result.put(gav, entry.alignedVersion);
+                }
+            }
+        }
+
+        logger.info("DA memo cache answered {} of {} GAVs", gavs.size() - misses.size(), gavs.size());
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        final Map<ProjectVersionRef, String> translated = translator.apply(misses);
+        synchronized (entries) {
+            for (ProjectVersionRef gav : misses) {
+                final String alignedVersion = translated.get(gav);
+                if (alignedVersion != null) {
+                    result.put(gav, alignedVersion);
+                }
+                entries.put(gav, new Entry(alignedVersion, now));
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Discards the caches of all the configurations.
+     */
+    static void clear() {
+        CACHES.clear();
+    }
+
+    private class Entry {
+        // null for GAVs the Dependency Analyzer has no aligned version for
+        private final String alignedVersion;
+
+        private final long timestamp;
+
+        Entry(String alignedVersion, long timestamp) {
+            this.alignedVersion = alignedVersion;
+            this.timestamp = timestamp;
+        }
+
+        boolean isExpired(long now) {
+            return now - timestamp >= (alignedVersion == null ? negativeTtl : ttl);
+        }
+    }
+}
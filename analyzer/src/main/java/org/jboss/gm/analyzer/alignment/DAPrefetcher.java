@@ -0,0 +1,183 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.apache.commons.lang.StringUtils.isEmpty;
+import static org.commonjava.maven.ext.core.state.DependencyState.DependencyPrecedence.NONE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.aeonbits.owner.ConfigCache;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.gradle.api.Project;
+import org.jboss.gm.common.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the dependencies of each project to the Dependency Analyzer as soon as the
+ * {@value org.jboss.gm.analyzer.alignment.AlignmentTask#NAME} task of the project has collected them, so that the
+ * REST calls overlap with the dependency resolution of the other projects. When
+ * {@value org.jboss.gm.analyzer.alignment.AlignmentAggregateTask#NAME} performs the alignment, only the dependencies
+ * that weren't prefetched (e.g. those of up-to-date projects) are sent.
+ * <p>
+ * The dependencies go through the same {@link org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer}s as
+ * the ones of the alignment, so that excluded dependencies are never sent.
+ * </p>
+ * <p>
+ * The prefetcher is stored in the root project extensions and is safe to use from alignment tasks of different projects
+ * running in parallel.
+ * </p>
+ */
+class DAPrefetcher implements AlignmentService {
+
+    private static final String NAME = "gmeDAPrefetcher";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final DAAlignmentService delegate;
+
+    private final List<RequestCustomizer> requestCustomizers;
+
+    private final ExecutorService executor;
+
+    private final Set<ProjectVersionRef> submitted = new HashSet<>();
+
+    private final List<Batch> batches = new ArrayList<>();
+
+    /**
+     * @param delegate the service performing the alignment
+     * @param requestCustomizers the customizers applied to the dependencies before they are sent
+     */
+    DAPrefetcher(DAAlignmentService delegate, List<RequestCustomizer> requestCustomizers) {
+        this.delegate = delegate;
+        this.requestCustomizers = new ArrayList<>(requestCustomizers);
+        this.requestCustomizers.sort(Comparator.comparingInt(RequestCustomizer::order));
+        // The thread must not outlive the build in the daemon when the aggregate task doesn't run
+        final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    final Thread thread = new Thread(r, "gme-da-prefetch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+    }
+
+    /**
+     * @param configuration the configuration
+     * @return true if the dependencies should be prefetched from the Dependency Analyzer
+     */
+    static boolean isEnabled(Configuration configuration) {
+        return configuration.restPrefetch() && isEmpty(configuration.alignmentSnapshot())
+                && configuration.dependencyConfiguration() != NONE;
+    }
+
+    /**
+     * Retrieves the prefetcher given any project, creating it if required.
+     *
+     * @param project the project
+     * @return the prefetcher of the build
+     */
+    static DAPrefetcher getPrefetcher(Project project) {
+        final Project rootProject = project.getRootProject();
+
+        synchronized (rootProject) {
+            if (!rootProject.getExtensions().getExtraProperties().has(NAME)) {
+                final Configuration configuration = ConfigCache.getOrCreate(Configuration.class);
+                rootProject.getExtensions().getExtraProperties().set(NAME, new DAPrefetcher(
+                        DAAlignmentService.forBuild(rootProject, configuration),
+                        AlignmentServiceFactory.getRequestCustomizers(configuration, rootProject.getAllprojects())));
+            }
+            return (DAPrefetcher) rootProject.getExtensions().getExtraProperties().get(NAME);
+        }
+    }
+
+    /**
+     * Queues the dependencies that are neither excluded by the request customizers nor submitted yet to be sent to the
+     * Dependency Analyzer in the background.
+     *
+     * @param dependencies the dependencies of a project
+     */
+    synchronized void submit(Collection<ProjectVersionRef> dependencies) {
+        final Request request = WithCustomizersDelegatingAlignmentService.customize(
+                new Request(Collections.emptyList(), dependencies), requestCustomizers);
+        final List<ProjectVersionRef> gavs = new ArrayList<>();
+        request.getDependencies().stream().filter(submitted::add).forEach(gavs::add);
+
+        if (!gavs.isEmpty() && !executor.isShutdown()) {
+            logger.info("Prefetching {} of {} dependencies", gavs.size(), dependencies.size());
+            batches.add(new Batch(gavs, executor.submit(() -> delegate.translateDependencies(gavs))));
+        }
+    }
+
+    /**
+     * Waits for the outstanding prefetches and aligns the request, only sending the dependencies that haven't been
+     * prefetched.
+     */
+    @Override
+    public Response align(Request request) {
+        final Map<ProjectVersionRef, String> prefetched = new HashMap<>();
+        final Set<ProjectVersionRef> translated = new HashSet<>();
+
+        synchronized (this) {
+            executor.shutdown();
+            for (Batch batch : batches) {
+                try {
+                    prefetched.putAll(batch.result.get());
+                    translated.addAll(batch.gavs);
+                } catch (ExecutionException e) {
+                    // The dependencies will simply be sent again
+                    logger.warn("Unable to prefetch {} dependencies", batch.gavs.size(), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ManipulationUncheckedException("Interrupted while prefetching dependencies", e);
+                }
+            }
+        }
+
+        return delegate.align(request, dependencies -> {
+            final List<ProjectVersionRef> missing = new ArrayList<>();
+            final Map<ProjectVersionRef, String> translationMap = new HashMap<>();
+
+            for (ProjectVersionRef dependency : dependencies) {
+                if (!translated.contains(dependency)) {
+                    missing.add(dependency);
+                } else if (prefetched.containsKey(dependency)) {
+                    translationMap.put(dependency, prefetched.get(dependency));
+                }
+            }
+            logger.info("{} of {} dependencies were prefetched", dependencies.size() - missing.size(),
+                    dependencies.size());
+
+            if (!missing.isEmpty()) {
+                translationMap.putAll(delegate.translateDependencies(missing));
+            }
+            return translationMap;
+        });
+    }
+
+    private static class Batch {
+        private final List<ProjectVersionRef> gavs;
+
+        private final Future<Map<ProjectVersionRef, String>> result;
+
+        Batch(List<ProjectVersionRef> gavs, Future<Map<ProjectVersionRef, String>> result) {
+            this.gavs = gavs;
+            this.result = result;
+        }
+    }
+}
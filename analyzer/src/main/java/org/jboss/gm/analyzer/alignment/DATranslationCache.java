@@ -0,0 +1,224 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.Configuration;
+import org.jboss.gm.common.utils.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * File backed cache of the versions returned by the Dependency Analyzer. As the aligned versions depend on the DA
+ * instance, the repository group and the suffix, each combination of these is stored in its own file in the
+ * directory configured via {@code restCacheDirectory}.
+ * <p>
+ * Entries expire after {@code restCacheTtl} seconds, or {@code restCacheNegativeTtl} seconds for GAVs that had no
+ * aligned version. When the cache holds more than {@code restCacheMaxSize} entries the oldest ones are evicted.
+ * Failing to read or write the cache file is never fatal: the GAVs are then simply sent to the Dependency Analyzer.
+ * </p>
+ * <p>
+ * The new entries are merged into the cache file while holding a lock on it, so that builds, or tasks of the same
+ * build, sharing the cache don't lose each other's entries.
+ * </p>
+ */
+class DATranslationCache {
+
+    /**
+     * File locks are held by the whole JVM, the threads of the JVM have to be serialized separately.
+     */
+    private static final Object WRITE_LOCK = new Object();
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final File file;
+
+    private final long ttl;
+
+    private final long negativeTtl;
+
+    private final int maxSize;
+
+    private final LongSupplier clock;
+
+    DATranslationCache(File file, long ttl, long negativeTtl, int maxSize, LongSupplier clock) {
+        this.file = file;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * @param configuration the configuration
+     * @return the cache for the configured endpoint or null if no cache directory has been configured
+     */
+    static DATranslationCache fromConfiguration(Configuration configuration) {
+        if (StringUtils.isEmpty(configuration.restCacheDirectory())) {
+            return null;
+        }
+
+        final String key = DigestUtils.sha256Hex(String.join("\n",
+                configuration.daEndpoint(),
+                String.valueOf(configuration.restRepositoryGroup()),
+                configuration.versionIncrementalSuffix()));
+
+        return new DATranslationCache(
+                new File(configuration.restCacheDirectory(), key + ".json"),
+                TimeUnit.SECONDS.toMillis(configuration.restCacheTtl()),
+                TimeUnit.SECONDS.toMillis(configuration.restCacheNegativeTtl()),
+                configuration.restCacheMaxSize(),
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Answers the GAVs from the cache and only passes the remaining ones to {@code translator}. The results of the
+     * translator are then added to the cache.
+     *
+     * @param gavs the GAVs to translate
+     * @param translator the function performing the actual translation
+     * @return the aligned versions of the GAVs which have one
+     */
+    Map<ProjectVersionRef, String> translateVersions(List<ProjectVersionRef> gavs,
+            Function<List<ProjectVersionRef>, Map<ProjectVersionRef, String>> translator) {
+        final long now = clock.getAsLong();
+        final Map<String, Entry> entries = read(now);
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        final List<ProjectVersionRef> misses = new ArrayList<>();
+
+        for (ProjectVersionRef gav : gavs) {
+            final Entry entry = entries.get(key(gav));
+            if (entry == null) {
+                misses.add(gav);
+            } else if (entry.alignedVersion != null) {
+                result.put(gav, entry.alignedVersion);
+            }
+        }
+
+        logger.info("DA translation cache answered {} of {} GAVs", gavs.size() - misses.size(), gavs.size());
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        final Map<ProjectVersionRef, String> translated = translator.apply(misses);
+        final List<Entry> added = new ArrayList<>(misses.size());
+        for (ProjectVersionRef gav : misses) {
+            final String alignedVersion = translated.get(gav);
+            if (alignedVersion != null) {
+                result.put(gav, alignedVersion);
+            }
+            added.add(new Entry(gav, alignedVersion, now));
+        }
+
+        write(added, now);
+        return result;
+    }
+
+    private Map<String, Entry> read(long now) {
+        final Map<String, Entry> entries = new HashMap<>();
+        if (!file.exists()) {
+            return entries;
+        }
+
+        try {
+            final List<Entry> stored = SerializationUtils.getObjectMapper().readValue(file,
+                    new TypeReference<List<Entry>>() {
+                    });
+            for (Entry entry : stored) {
+                final long expiry = entry.alignedVersion == null ? negativeTtl : ttl;
+                if (now - entry.timestamp < expiry) {
+                    entries.put(entry.key(), entry);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read DA translation cache {} ; ignoring it", file, e);
+        }
+        return entries;
+    }
+
+    /**
+     * Merges the entries into the ones stored by now, which might have been added by another build since the cache was
+     * read.
+     */
+    private void write(List<Entry> added, long now) {
+        synchronized (WRITE_LOCK) {
+            try {
+                Files.createDirectories(file.toPath().getParent());
+                try (FileChannel channel = FileChannel.open(new File(file.getPath() + ".lock").toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                        FileLock ignored = channel.lock()) {
+                    final Map<String, Entry> entries = read(now);
+                    added.forEach(entry -> entries.merge(entry.key(), entry,
+                            (stored, fresh) -> stored.timestamp > fresh.timestamp ? stored : fresh));
+                    store(entries);
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to write DA translation cache {}", file, e);
+            }
+        }
+    }
+
+    private void store(Map<String, Entry> entries) throws IOException {
+        final List<Entry> stored = new ArrayList<>(entries.values());
+        stored.sort(Comparator.comparingLong((Entry e) -> e.timestamp).reversed().thenComparing(Entry::key));
+        if (maxSize >= 0 && stored.size() > maxSize) {
+            logger.debug("Evicting {} entries from DA translation cache", stored.size() - maxSize);
+            stored.subList(maxSize, stored.size()).clear();
+        }
+
+        // Write to a temporary file first so that readers, which don't take the lock, never read a partially written
+        // cache
+        final File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        SerializationUtils.getObjectMapper().writeValue(temp, stored);
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String key(ProjectVersionRef gav) {
+        return gav.getGroupId() + ':' + gav.getArtifactId() + ':' + gav.getVersionString();
+    }
+
+    /**
+     * A null {@code alignedVersion} records that the Dependency Analyzer had no aligned version for the GAV.
+     */
+    static class Entry {
+        public String groupId;
+        public String artifactId;
+        public String version;
+        public String alignedVersion;
+        public long timestamp;
+
+        @SuppressWarnings("unused")
+        Entry() {
+        }
+
+        Entry(ProjectVersionRef gav, String alignedVersion, long timestamp) {
+            this.groupId = gav.getGroupId();
+            this.artifactId = gav.getArtifactId();
+            this.version = gav.getVersionString();
+            this.alignedVersion = alignedVersion;
+            this.timestamp = timestamp;
+        }
+
+        String key() {
+            return groupId + ':' + artifactId + ':' + version;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ProjectDependency;
+
+/**
+ * Index of the dependencies declared by a configuration, built once so that each resolved dependency can be matched
+ * back to its declaration without scanning the whole dependency set.
+ */
+class DeclaredDependencies {
+
+    private final Map<List<String>, List<Dependency>> byGA = new HashMap<>();
+
+    private final Set<List<String>> projectGAVs = new HashSet<>();
+
+    DeclaredDependencies(Iterable<? extends Dependency> dependencies) {
+        for (Dependency dependency : dependencies) {
+            byGA.computeIfAbsent(key(dependency.getGroup(), dependency.getName()), k -> new ArrayList<>(1))
+                    .add(dependency);
+
+            if (dependency instanceof ProjectDependency) {
+                projectGAVs.add(key(dependency.getGroup(), dependency.getName(), dependency.getVersion()));
+            }
+        }
+    }
+
+    /**
+     * @param group the group of the module
+     * @param name the name of the module
+     * @return the declared dependencies on the module, in declaration order
+     */
+    List<Dependency> find(String group, String name) {
+        return byGA.getOrDefault(key(group, name), Collections.emptyList());
+    }
+
+    /**
+     * @param group the group of the module
+     * @param name the name of the module
+     * @param version the version of the module
+     * @return true if the module is one of the declared dependencies on project modules
+     */
+    boolean isProjectDependency(String group, String name, String version) {
+        return projectGAVs.contains(key(group, name, version));
+    }
+
+    // Lists are used as keys as they handle null coordinates (e.g. of file dependencies) without any special casing
+    private static List<String> key(String... coordinates) {
+        return Arrays.asList(coordinates);
+    }
+}
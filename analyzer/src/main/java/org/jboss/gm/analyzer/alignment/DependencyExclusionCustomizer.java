@@ -1,7 +1,8 @@
 package org.jboss.gm.analyzer.alignment;
 
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,8 +22,8 @@ import org.slf4j.LoggerFactory;
  * {@link org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer} that removes dependencies from a
  * {@link org.jboss.gm.analyzer.alignment.AlignmentService.Request}
  *
- * The idea is that this class will be created with a predicate (which can of course be the product of multiple predicates)
- * that will match dependencies that are supposed to be excluded.
+ * The idea is that this class will be created with a predicate (or the patterns of the dependencies to exclude) that
+ * will match dependencies that are supposed to be excluded.
  * The hard part is creating the proper predicate for each project based on configuration similar to what PME offers
  *
  * TODO: figure out if we need to worry about order
@@ -37,6 +38,18 @@ public class DependencyExclusionCustomizer implements AlignmentService.RequestCu
         this.predicate = predicate;
     }
 
+    /**
+     * @param exclusions the patterns of the dependencies to exclude, which are indexed so that each dependency is
+     *        checked in constant time whatever the number of exclusions
+     */
+    DependencyExclusionCustomizer(Collection<ProjectRef> exclusions) {
+        final Map<ProjectRef, Boolean> entries = new LinkedHashMap<>();
+        exclusions.forEach(exclusion -> entries.put(exclusion, Boolean.TRUE));
+
+        final ProjectRefIndex<Boolean> index = new ProjectRefIndex<>(entries);
+        this.predicate = gav -> !index.matches(gav);
+    }
+
     @Override
     public AlignmentService.Request customize(AlignmentService.Request request) {
         final List<? extends ProjectVersionRef> dependenciesWithoutExclusions = request.getDependencies().stream()
@@ -52,12 +65,9 @@ public class DependencyExclusionCustomizer implements AlignmentService.RequestCu
         if (prefixed.isEmpty()) {
             return AlignmentService.RequestCustomizer.NOOP;
         }
-        final Iterator<String> keys = prefixed.keySet().iterator();
-        //the idea is to start with a predicate that passes all artifacts and add one predicate per configured exclusion
-        final List<Predicate> predicates = new ArrayList<>();
-        while (keys.hasNext()) {
-            final String key = keys.next();
-
+        // the same dependency might be excluded from several modules, it only needs to be checked once
+        final Set<ProjectRef> exclusions = new LinkedHashSet<>();
+        for (String key : prefixed.keySet()) {
             final DependencyPropertyParser.Result keyParseResult = DependencyPropertyParser.parse(key);
             for (Project project : projects) {
                 final ProjectVersionRef projectRef = new SimpleProjectVersionRef(project.getGroup().toString(),
@@ -65,29 +75,16 @@ public class DependencyExclusionCustomizer implements AlignmentService.RequestCu
                 if (keyParseResult.matchesModule(projectRef)) {
                     log.debug("Excluding dependency {} from alignment of module {}", keyParseResult.getDependency(),
                             projectRef);
-                    // if the key matches this module, add a predicate that rejects the artifact that was configured in the property
-                    predicates.add(new DependencyExclusionPredicate(keyParseResult.getDependency()));
+                    // if the key matches this module, reject the artifact that was configured in the property
+                    exclusions.add(keyParseResult.getDependency());
                 }
             }
         }
 
-        if (predicates.isEmpty()) {
+        if (exclusions.isEmpty()) {
             return AlignmentService.RequestCustomizer.NOOP;
         }
 
-        return new DependencyExclusionCustomizer(predicates.stream().reduce(x -> true, Predicate::and));
-    }
-
-    private static class DependencyExclusionPredicate implements Predicate<ProjectRef> {
-        private final ProjectRef dependency;
-
-        DependencyExclusionPredicate(ProjectRef dependency) {
-            this.dependency = dependency;
-        }
-
-        @Override
-        public boolean test(ProjectRef gav) {
-            return !dependency.matches(gav);
-        }
+        return new DependencyExclusionCustomizer(exclusions);
     }
 }
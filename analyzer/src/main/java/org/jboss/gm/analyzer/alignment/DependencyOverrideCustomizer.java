@@ -1,8 +1,10 @@
 package org.jboss.gm.analyzer.alignment;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
@@ -27,15 +29,21 @@ public class DependencyOverrideCustomizer implements AlignmentService.ResponseCu
 
     private static final Logger log = LoggerFactory.getLogger(DependencyExclusionCustomizer.class);
 
-    private final Map<ProjectRef, String> overrideMap;
+    private final ProjectRefIndex<String> overrides;
 
     public DependencyOverrideCustomizer(Map<ProjectRef, String> overrideMap) {
-        this.overrideMap = overrideMap;
+        // Built once as every dependency of every module is looked up
+        this.overrides = new ProjectRefIndex<>(overrideMap);
     }
 
     @Override
     public AlignmentService.Response customize(AlignmentService.Response response) {
-        return new DependencyOverrideCustomizerResponse(overrideMap, response);
+        return new DependencyOverrideCustomizerResponse(overrides, Collections.emptyList(), response);
+    }
+
+    @Override
+    public AlignmentService.Response customize(AlignmentService.Request request, AlignmentService.Response response) {
+        return new DependencyOverrideCustomizerResponse(overrides, request.getDependencies(), response);
     }
 
     public static AlignmentService.ResponseCustomizer fromConfigurationForModule(Configuration configuration,
@@ -72,12 +80,17 @@ public class DependencyOverrideCustomizer implements AlignmentService.ResponseCu
 
     private static class DependencyOverrideCustomizerResponse implements AlignmentService.Response {
 
-        private final Map<ProjectRef, String> overrideMap;
+        private final ProjectRefIndex<String> overrides;
+        private final Collection<? extends ProjectVersionRef> requestedDependencies;
         private final AlignmentService.Response originalResponse;
 
-        DependencyOverrideCustomizerResponse(Map<ProjectRef, String> overrideMap,
+        private volatile Map<ProjectVersionRef, String> translationMap;
+
+        DependencyOverrideCustomizerResponse(ProjectRefIndex<String> overrides,
+                Collection<? extends ProjectVersionRef> requestedDependencies,
                 AlignmentService.Response originalResponse) {
-            this.overrideMap = overrideMap;
+            this.overrides = overrides;
+            this.requestedDependencies = requestedDependencies;
             this.originalResponse = originalResponse;
         }
 
@@ -88,21 +101,49 @@ public class DependencyOverrideCustomizer implements AlignmentService.ResponseCu
 
         @Override
         public Map<ProjectVersionRef, String> getTranslationMap() {
-            throw new UnsupportedOperationException();
+            Map<ProjectVersionRef, String> result = translationMap;
+            if (result == null) {
+                synchronized (this) {
+                    result = translationMap;
+                    if (result == null) {
+                        result = translationMap = overrideTranslationMap();
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Applies the overrides to the translation map of the original response, and adds the overridden dependencies of
+         * the request the Dependency Analyzer had no version for (or that were excluded from the request). Done once, on
+         * first access, as the map is iterated repeatedly.
+         */
+        private Map<ProjectVersionRef, String> overrideTranslationMap() {
+            final Map<ProjectVersionRef, String> original = originalResponse.getTranslationMap();
+            final Map<ProjectVersionRef, String> result = new HashMap<>(
+                    (int) ((original.size() + requestedDependencies.size()) / 0.75f) + 1);
+
+            original.forEach((gav, version) -> {
+                final String overrideVersion = overrides.get(gav);
+                result.put(gav, overrideVersion != null ? overrideVersion : version);
+            });
+            requestedDependencies.forEach(gav -> {
+                final String overrideVersion = overrides.get(gav);
+                if (overrideVersion != null) {
+                    result.put(gav, overrideVersion);
+                }
+            });
+            return Collections.unmodifiableMap(result);
         }
 
         @Override
         public String getAlignedVersionOfGav(ProjectVersionRef gav) {
-            final Optional<ProjectRef> projectRef = matchingProjectRef(gav);
-            if (projectRef.isPresent()) {
-                return overrideMap.get(projectRef.get());
+            final String overrideVersion = overrides.get(gav);
+            if (overrideVersion != null) {
+                return overrideVersion;
             }
 
-            return gav.getVersionString();
-        }
-
-        private Optional<ProjectRef> matchingProjectRef(ProjectRef gav) {
-            return overrideMap.keySet().stream().filter(p -> p.matches(gav)).findFirst();
+            return originalResponse.getAlignedVersionOfGav(gav);
         }
     }
 }
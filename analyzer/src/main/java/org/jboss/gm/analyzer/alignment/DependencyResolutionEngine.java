@@ -0,0 +1,62 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+
+/**
+ * Used by {@link org.jboss.gm.analyzer.alignment.AlignmentTask} in order to resolve the first level module dependencies
+ * of a configuration
+ *
+ * @see org.jboss.gm.analyzer.alignment.LenientResolutionEngine
+ * @see org.jboss.gm.analyzer.alignment.ResolutionResultEngine
+ */
+interface DependencyResolutionEngine {
+
+    /**
+     * Resolves the supplied configuration. Implementations must not modify the configuration itself, and must
+     * be safe to invoke concurrently for different configurations.
+     *
+     * @param configuration the configuration to resolve
+     * @param declaredDependencies the dependencies declared by the configuration
+     * @return the resolved first level dependencies, without the dependencies on project modules
+     */
+    Result resolve(Configuration configuration, DeclaredDependencies declaredDependencies);
+
+    static DependencyResolutionEngine of(org.jboss.gm.common.Configuration.ResolutionEngine type) {
+        switch (type) {
+            case RESOLUTION_RESULT:
+                return new ResolutionResultEngine();
+            case LENIENT:
+            default:
+                return new LenientResolutionEngine();
+        }
+    }
+
+    class Result {
+        private final Set<ModuleVersionIdentifier> resolved;
+        private final Map<String, Throwable> unresolved;
+
+        Result(Set<ModuleVersionIdentifier> resolved, Map<String, Throwable> unresolved) {
+            this.resolved = Collections.unmodifiableSet(resolved);
+            this.unresolved = Collections.unmodifiableMap(unresolved);
+        }
+
+        /**
+         * @return the resolved first level module dependencies in the order Gradle returned them
+         */
+        Set<ModuleVersionIdentifier> getResolved() {
+            return resolved;
+        }
+
+        /**
+         * @return the dependencies that could not be resolved, keyed by their requested GAV
+         */
+        Map<String, Throwable> getUnresolved() {
+            return unresolved;
+        }
+    }
+}
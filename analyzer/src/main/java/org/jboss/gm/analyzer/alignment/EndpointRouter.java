@@ -0,0 +1,112 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses which of the Dependency Analyzer instances a request is sent to. Requests go to the instance with the lowest
+ * recent latency (an exponentially weighted moving average, so that instances that haven't been used yet are tried
+ * first), skipping the instances that failed during the last {@value #COOLDOWN_SECONDS} seconds unless all of them
+ * did.
+ * <p>
+ * Instances are safe for concurrent use.
+ * </p>
+ */
+class EndpointRouter {
+
+    static final long COOLDOWN_SECONDS = 30;
+
+    private static final double LATENCY_WEIGHT = 0.3;
+
+    private final List<Endpoint> endpoints;
+
+    private final LongSupplier clock;
+
+    /**
+     * @param urls the URLs of the instances, in order of preference for instances with the same latency
+     * @param clock supplies the current time in milliseconds
+     */
+    EndpointRouter(List<String> urls, LongSupplier clock) {
+        this.endpoints = new ArrayList<>(urls.size());
+        urls.forEach(url -> endpoints.add(new Endpoint(url)));
+        this.clock = clock;
+    }
+
+    int size() {
+        return endpoints.size();
+    }
+
+    List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @param excluded the instances that must not be chosen, e.g. because the request already failed on them
+     * @return the instance the request should be sent to, or null if all of them are excluded
+     */
+    synchronized Endpoint select(Collection<Endpoint> excluded) {
+        final long now = clock.getAsLong();
+        Endpoint best = null;
+
+        for (Endpoint endpoint : endpoints) {
+            if (excluded.contains(endpoint)) {
+                continue;
+            }
+            if (best == null) {
+                best = endpoint;
+            } else if (best.isDown(now) || endpoint.isDown(now)) {
+                // Healthy instances are preferred, otherwise the one that will recover first
+                if (best.isDown(now) && (!endpoint.isDown(now) || endpoint.downUntil < best.downUntil)) {
+                    best = endpoint;
+                }
+            } else if (endpoint.latency < best.latency) {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+
+    synchronized void onSuccess(Endpoint endpoint, long latency) {
+        endpoint.latency = endpoint.measured ? LATENCY_WEIGHT * latency + (1 - LATENCY_WEIGHT) * endpoint.latency
+                : latency;
+        endpoint.measured = true;
+        endpoint.downUntil = 0;
+    }
+
+    synchronized void onFailure(Endpoint endpoint) {
+        endpoint.downUntil = clock.getAsLong() + TimeUnit.SECONDS.toMillis(COOLDOWN_SECONDS);
+    }
+
+    /**
+     * A Dependency Analyzer instance along with what has been observed of it.
+     */
+    static class Endpoint {
+        private final String url;
+
+        private double latency;
+
+        private boolean measured;
+
+        private long downUntil;
+
+        Endpoint(String url) {
+            this.url = url;
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        private boolean isDown(long now) {
+            return downUntil > now;
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+}
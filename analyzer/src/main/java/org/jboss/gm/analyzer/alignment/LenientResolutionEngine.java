@@ -0,0 +1,48 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.LenientConfiguration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.gradle.api.artifacts.UnresolvedDependency;
+
+/**
+ * {@link org.jboss.gm.analyzer.alignment.DependencyResolutionEngine} that uses the
+ * {@link org.gradle.api.artifacts.LenientConfiguration} of a copy of the configuration
+ */
+class LenientResolutionEngine implements DependencyResolutionEngine {
+
+    @Override
+    public Result resolve(Configuration configuration, DeclaredDependencies declaredDependencies) {
+        final LenientConfiguration lenient = configuration.copyRecursive().getResolvedConfiguration()
+                .getLenientConfiguration();
+
+        // We don't care about modules of the project being unresolvable at this stage. Had we not excluded them,
+        // we would get false negatives
+        final Map<String, Throwable> unresolved = new LinkedHashMap<>();
+        for (UnresolvedDependency unresolvedDependency : lenient.getUnresolvedModuleDependencies()) {
+            final ModuleVersionSelector selector = unresolvedDependency.getSelector();
+            if (!declaredDependencies.isProjectDependency(selector.getGroup(), selector.getName(),
+                    selector.getVersion())) {
+                unresolved.put(unresolvedDependency.toString(), unresolvedDependency.getProblem());
+            }
+        }
+
+        final Set<ModuleVersionIdentifier> resolved = new LinkedHashSet<>();
+        for (ResolvedDependency dependency : lenient.getFirstLevelModuleDependencies()) {
+            // skip dependencies on project modules
+            if (!declaredDependencies.isProjectDependency(dependency.getModuleGroup(), dependency.getModuleName(),
+                    dependency.getModuleVersion())) {
+                resolved.add(dependency.getModule().getId());
+            }
+        }
+
+        return new Result(resolved, unresolved);
+    }
+}
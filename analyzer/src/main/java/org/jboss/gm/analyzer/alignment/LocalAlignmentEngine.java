@@ -0,0 +1,166 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.ext.core.impl.Version;
+
+/**
+ * Computes the aligned versions of GAVs from the versions available for each GA, without calling the Dependency
+ * Analyzer. The rules are the ones it applies: a version is aligned to the available version whose OSGi normalized
+ * base version (i.e. without the incremental suffix) is the same as the one of the requested version and which has
+ * the highest build number.
+ * <p>
+ * The versions are split and normalized by PME's {@link Version}, as when calculating the suffixed versions, and the
+ * suffix is compared regardless of case.
+ * </p>
+ */
+public class LocalAlignmentEngine {
+
+    // Same delimiters as the ones accepted by PME between the parts of a version
+    private static final String DELIMITERS = ".-_";
+
+    // Longer build numbers don't fit in a long
+    private static final int MAX_BUILD_NUMBER_LENGTH = 18;
+
+    private final String incrementalSuffix;
+
+    public LocalAlignmentEngine(String incrementalSuffix) {
+        this.incrementalSuffix = incrementalSuffix;
+    }
+
+    /**
+     * @param gavs the GAVs to align
+     * @param availableVersions provides the versions available for a GA, it is called once per GA
+     * @return the aligned version of each GAV that has one
+     */
+    public Map<ProjectVersionRef, String> align(Collection<ProjectVersionRef> gavs,
+            Function<ProjectRef, ? extends Collection<String>> availableVersions) {
+        final Map<ProjectRef, VersionIndex> indexes = new HashMap<>();
+        final Map<ProjectVersionRef, String> translationMap = new HashMap<>();
+
+        for (ProjectVersionRef gav : gavs) {
+            final VersionIndex index = indexes.computeIfAbsent(
+                    new SimpleProjectRef(gav.getGroupId(), gav.getArtifactId()),
+                    ga -> index(availableVersions.apply(ga)));
+            final String alignedVersion = index.bestMatch(gav.getVersionString());
+            if (alignedVersion != null) {
+                translationMap.put(gav, alignedVersion);
+            }
+        }
+        return translationMap;
+    }
+
+    /**
+     * @param availableVersions the versions available for a GA
+     * @return an index of the versions that carry the incremental suffix, looking up a version in it is O(log n)
+     */
+    public VersionIndex index(Collection<String> availableVersions) {
+        final TreeMap<String, String> bestMatches = new TreeMap<>();
+        final Map<String, Long> buildNumbers = new HashMap<>();
+
+        for (String version : availableVersions) {
+            final String unsuffixed = unsuffixed(version);
+            final long buildNumber = buildNumber(version);
+            if (unsuffixed == null || buildNumber < 0) {
+                continue;
+            }
+            final String base = Version.getOsgiVersion(unsuffixed);
+            final Long current = buildNumbers.get(base);
+            if (current == null || buildNumber > current) {
+                buildNumbers.put(base, buildNumber);
+                bestMatches.put(base, version);
+            }
+        }
+
+        return new VersionIndex(bestMatches.keySet().toArray(new String[0]),
+                bestMatches.values().toArray(new String[0]));
+    }
+
+    /**
+     * @param version a version, with or without the incremental suffix
+     * @return the OSGi normalized base version
+     */
+    String baseVersion(String version) {
+        final String unsuffixed = unsuffixed(version);
+        return Version.getOsgiVersion(unsuffixed == null ? version : unsuffixed);
+    }
+
+    /**
+     * @param version a version
+     * @return the version without the incremental suffix and the build number, e.g. {@code 1.0.0.Final} for
+     *         {@code 1.0.0.Final-redhat-00001}, or null if it doesn't carry the suffix
+     */
+    private String unsuffixed(String version) {
+        // e.g. the qualifier Final-redhat-00001 has the base Final-redhat and the build number 00001
+        final String qualifierBase = Version.getQualifierBase(version);
+        if (!Version.hasBuildNumber(version) || !StringUtils.endsWithIgnoreCase(qualifierBase, incrementalSuffix)) {
+            return null;
+        }
+
+        final int start = version.length() - Version.getQualifier(version).length() + qualifierBase.length()
+                - incrementalSuffix.length();
+        // The suffix must follow a delimiter, and something that isn't the suffix
+        if (start < 2 || DELIMITERS.indexOf(version.charAt(start - 1)) < 0) {
+            return null;
+        }
+        return version.substring(0, start - 1);
+    }
+
+    /**
+     * @return the build number following the qualifier base, or -1 if there is none or it is too long
+     */
+    private static long buildNumber(String version) {
+        final String qualifier = Version.getQualifier(version);
+        int start = Version.getQualifierBase(version).length();
+        while (start < qualifier.length() && DELIMITERS.indexOf(qualifier.charAt(start)) >= 0) {
+            start++;
+        }
+        int end = start;
+        while (end < qualifier.length() && Character.isDigit(qualifier.charAt(end))) {
+            end++;
+        }
+        return end == start || end - start > MAX_BUILD_NUMBER_LENGTH ? -1
+                : Long.parseLong(qualifier.substring(start, end));
+    }
+
+    /**
+     * The best match of each base version available for a GA, stored as two arrays sorted by base version.
+     */
+    public final class VersionIndex {
+
+        private final String[] baseVersions;
+
+        private final String[] bestMatches;
+
+        private VersionIndex(String[] baseVersions, String[] bestMatches) {
+            this.baseVersions = baseVersions;
+            this.bestMatches = bestMatches;
+        }
+
+        /**
+         * @param version the requested version
+         * @return the available version with the same base version and the highest build number, or null if there is
+         *         none
+         */
+        public String bestMatch(String version) {
+            if (baseVersions.length == 0) {
+                return null;
+            }
+            final int position = Arrays.binarySearch(baseVersions, baseVersion(version));
+            return position < 0 ? null : bestMatches[position];
+        }
+
+        public int size() {
+            return baseVersions.length;
+        }
+    }
+}
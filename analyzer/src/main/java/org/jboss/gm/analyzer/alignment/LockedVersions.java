@@ -0,0 +1,48 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.gradle.api.artifacts.Configuration;
+
+/**
+ * The versions locked by the lockfiles of a project. Gradle writes one lockfile per configuration, but the
+ * configurations are resolved through copies which ignore dependency locking, and configurations without a lockfile
+ * (e.g. {@code testRuntimeClasspath} when only {@code compileClasspath} is locked) would otherwise report the version
+ * a dynamic dependency currently resolves to.
+ */
+class LockedVersions {
+
+    private final Map<String, Map<ProjectRef, String>> byConfiguration;
+
+    private final Map<ProjectRef, String> all = new HashMap<>();
+
+    /**
+     * @param byConfiguration for the name of each locked configuration, the locked version of each module
+     */
+    LockedVersions(Map<String, Map<ProjectRef, String>> byConfiguration) {
+        this.byConfiguration = byConfiguration;
+        // Sorted so that a module locked to different versions by different configurations is always attributed the
+        // same version
+        new TreeMap<>(byConfiguration).values().forEach(locked -> locked.forEach(all::putIfAbsent));
+    }
+
+    /**
+     * @param configuration the configuration the module is resolved for
+     * @param module the module
+     * @return the version locked by the lockfile of the configuration, or else of the closest configuration it extends,
+     *         or else of any configuration of the project ; null if the module isn't locked
+     */
+    String get(Configuration configuration, ProjectRef module) {
+        for (Configuration c : configuration.getHierarchy()) {
+            final Map<ProjectRef, String> locked = byConfiguration.get(c.getName());
+            final String version = locked != null ? locked.get(module) : null;
+            if (version != null) {
+                return version;
+            }
+        }
+        return all.get(module);
+    }
+}
@@ -0,0 +1,95 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.versioning.ProjectVersionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Parses the response of the GAV lookup endpoint of the Dependency Analyzer token by token, so that only the entries
+ * of the translation map are retained instead of the whole response (which also contains the available versions
+ * and the products of each GAV). The fields of each GAV may come in any order, and GAVs missing their group id, artifact
+ * id or version are skipped.
+ */
+final class LookupResponseParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(LookupResponseParser.class);
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private LookupResponseParser() {
+    }
+
+    /**
+     * @param response the response of the lookup endpoint
+     * @param translationMap the map the best match versions of the GAVs that have one are added to
+     * @throws IOException if the response can't be read or isn't a valid response
+     */
+    static void parse(InputStream response, Map<ProjectVersionRef, String> translationMap) throws IOException {
+        // GAVs of the same build share few group ids so they are only stored once
+        final Map<String, String> groupIds = new HashMap<>();
+
+        try (JsonParser parser = FACTORY.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of GAVs");
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String groupId = null;
+                String artifactId = null;
+                String version = null;
+                String bestMatchVersion = null;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String field = parser.getCurrentName();
+                    final JsonToken value = parser.nextToken();
+
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        switch (field) {
+                            case "groupId":
+                                groupId = groupIds.computeIfAbsent(parser.getText(), g -> g);
+                                break;
+                            case "artifactId":
+                                artifactId = parser.getText();
+                                break;
+                            case "version":
+                                version = parser.getText();
+                                break;
+                            case "bestMatchVersion":
+                                bestMatchVersion = parser.getText();
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                }
+
+                if (bestMatchVersion == null) {
+                    continue;
+                }
+                if (groupId == null || artifactId == null || version == null) {
+                    logger.warn("Ignoring best match version {} of incomplete GAV {}:{}:{} returned by the Dependency "
+                            + "Analyzer", bestMatchVersion, groupId, artifactId, version);
+                    continue;
+                }
+                translationMap.put(ProjectVersionFactory.withGAV(groupId, artifactId, version), bestMatchVersion);
+            }
+
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected an object describing a GAV");
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.jboss.gm.analyzer.alignment.io.AlignmentSnapshot;
+import org.jboss.gm.analyzer.alignment.io.AlignmentSnapshotIO;
+import org.jboss.gm.common.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An implementation of {@link org.jboss.gm.analyzer.alignment.AlignmentService} that answers from a snapshot of the
+ * aligned versions available for each GA (see {@link AlignmentSnapshotIO}) instead of calling the Dependency Analyzer.
+ * The snapshot is configured via {@code alignmentSnapshot}, and can be exported from a previous run performed with
+ * the Dependency Analyzer via {@code alignmentSnapshotExport}.
+ *
+ * The aligned versions are computed by {@link LocalAlignmentEngine}.
+ */
+public class OfflineAlignmentService implements AlignmentService {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final AlignmentSnapshot snapshot;
+
+    private final LocalAlignmentEngine engine;
+
+    public OfflineAlignmentService(Configuration configuration) {
+        this.snapshot = AlignmentSnapshotIO.readSnapshot(new File(configuration.alignmentSnapshot()));
+        this.engine = new LocalAlignmentEngine(configuration.versionIncrementalSuffix());
+    }
+
+    @Override
+    public Response align(Request request) {
+        final List<ProjectVersionRef> gavs = new ArrayList<>(request.getDependencies().size() + 1);
+        gavs.addAll(request.getProject());
+        gavs.addAll(request.getDependencies());
+
+        final Map<ProjectVersionRef, String> translationMap = engine.align(gavs, snapshot::getVersions);
+
+        logger.info("Alignment snapshot of {} GAs aligned {} of {} GAVs", snapshot.size(), translationMap.size(),
+                gavs.size());
+        return new DAAlignmentService.Response(request.getProject(), translationMap);
+    }
+
+    /**
+     * Adds the aligned versions of a translation map to the snapshot, which is created if it doesn't exist.
+     *
+     * @param snapshotFile the snapshot
+     * @param translationMap the aligned version of each GAV
+     */
+    static void exportTranslations(File snapshotFile, Map<ProjectVersionRef, String> translationMap) {
+        final Map<ProjectRef, Set<String>> versions = new HashMap<>();
+
+        if (snapshotFile.exists()) {
+            AlignmentSnapshotIO.readSnapshot(snapshotFile)
+                    .forEach((ga, v) -> versions.put(ga, new LinkedHashSet<>(v)));
+        }
+        translationMap.forEach((gav, alignedVersion) -> versions
+                .computeIfAbsent(new SimpleProjectRef(gav.getGroupId(), gav.getArtifactId()), ga -> new LinkedHashSet<>())
+                .add(alignedVersion));
+
+        final Map<ProjectRef, List<String>> merged = new HashMap<>(versions.size());
+        versions.forEach((ga, v) -> merged.put(ga, new ArrayList<>(v)));
+        AlignmentSnapshotIO.writeSnapshot(snapshotFile, merged);
+    }
+}
@@ -0,0 +1,97 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+
+/**
+ * Finds the first of a sequence of {@link ProjectRef} patterns that {@link ProjectRef#matches(ProjectRef) matches} a
+ * GA, without trying every pattern. Exact GAs and {@code group:*} patterns are kept in hash maps, so that a GA is
+ * only matched against the other patterns (e.g. {@code org.jboss.*:*}) that come before the ones found in the maps.
+ */
+final class ProjectRefIndex<V> {
+
+    // What ProjectRef.matches treats as literal
+    private static final Pattern LITERAL = Pattern.compile("[\\w.\\-]+");
+
+    private static final String WILDCARD = "*";
+
+    private final List<ProjectRef> patterns = new ArrayList<>();
+
+    private final List<V> values = new ArrayList<>();
+
+    // group -> artifact -> position of the first pattern
+    private final Map<String, Map<String, Integer>> exact = new HashMap<>();
+
+    private final Map<String, Integer> groupWildcards = new HashMap<>();
+
+    private final List<Integer> others = new ArrayList<>();
+
+    /**
+     * @param entries the patterns and their values, in order of precedence
+     */
+    ProjectRefIndex(Map<? extends ProjectRef, ? extends V> entries) {
+        entries.forEach((pattern, value) -> {
+            final int position = patterns.size();
+            patterns.add(pattern);
+            values.add(value);
+
+            final String groupId = pattern.getGroupId();
+            final String artifactId = pattern.getArtifactId();
+            if (!LITERAL.matcher(groupId).matches()) {
+                others.add(position);
+            } else if (WILDCARD.equals(artifactId)) {
+                groupWildcards.putIfAbsent(groupId, position);
+            } else if (LITERAL.matcher(artifactId).matches()) {
+                exact.computeIfAbsent(groupId, g -> new HashMap<>()).putIfAbsent(artifactId, position);
+            } else {
+                others.add(position);
+            }
+        });
+    }
+
+    /**
+     * @param ga the GA to look up
+     * @return the value of the first pattern matching the GA, or null if none does
+     */
+    V get(ProjectRef ga) {
+        final int position = find(ga);
+        return position < 0 ? null : values.get(position);
+    }
+
+    /**
+     * @param ga the GA to look up
+     * @return true if any pattern matches the GA
+     */
+    boolean matches(ProjectRef ga) {
+        return find(ga) >= 0;
+    }
+
+    int size() {
+        return patterns.size();
+    }
+
+    private int find(ProjectRef ga) {
+        int best = Integer.MAX_VALUE;
+
+        final Map<String, Integer> artifacts = exact.get(ga.getGroupId());
+        if (artifacts != null) {
+            best = artifacts.getOrDefault(ga.getArtifactId(), best);
+        }
+        best = Math.min(best, groupWildcards.getOrDefault(ga.getGroupId(), best));
+
+        for (int position : others) {
+            if (position >= best) {
+                break;
+            }
+            if (patterns.get(position).matches(ga)) {
+                return position;
+            }
+        }
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+}
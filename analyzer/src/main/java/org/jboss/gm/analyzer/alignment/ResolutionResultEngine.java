@@ -0,0 +1,57 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
+
+/**
+ * {@link org.jboss.gm.analyzer.alignment.DependencyResolutionEngine} that only walks the
+ * {@link org.gradle.api.artifacts.result.ResolutionResult} graph of a copy of the configuration.
+ *
+ * Only the component and dependency results are inspected so no artifact sets are ever built. The resolved
+ * dependencies are the ones of the root, while the unresolved ones are looked for in the whole graph, as with
+ * {@link org.jboss.gm.analyzer.alignment.LenientResolutionEngine}. Dependencies on project modules are recognized by
+ * their component identifiers, which is why the declared project dependencies are not needed.
+ */
+class ResolutionResultEngine implements DependencyResolutionEngine {
+
+    @Override
+    public Result resolve(Configuration configuration, DeclaredDependencies declaredDependencies) {
+        final ResolutionResult result = configuration.copyRecursive().getIncoming().getResolutionResult();
+
+        final Set<ModuleVersionIdentifier> resolved = new LinkedHashSet<>();
+        for (DependencyResult dependency : result.getRoot().getDependencies()) {
+            if (!dependency.isConstraint() && dependency instanceof ResolvedDependencyResult) {
+                final ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+                // skip dependencies on project modules
+                if (!(selected.getId() instanceof ProjectComponentIdentifier)) {
+                    resolved.add(selected.getModuleVersion());
+                }
+            }
+        }
+
+        final Map<String, Throwable> unresolved = new LinkedHashMap<>();
+        for (DependencyResult dependency : result.getAllDependencies()) {
+            if (!dependency.isConstraint() && dependency instanceof UnresolvedDependencyResult) {
+                final UnresolvedDependencyResult unresolvedDependency = (UnresolvedDependencyResult) dependency;
+                // We don't care about modules of the project being unresolvable at this stage.
+                if (unresolvedDependency.getAttempted() instanceof ModuleComponentSelector) {
+                    unresolved.put(unresolvedDependency.getAttempted().getDisplayName(), unresolvedDependency.getFailure());
+                }
+            }
+        }
+
+        return new Result(resolved, unresolved);
+    }
+}
@@ -0,0 +1,113 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.StringUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.core.impl.Version;
+import org.commonjava.maven.ext.core.state.VersioningState;
+import org.jboss.gm.common.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link org.jboss.gm.analyzer.alignment.AlignmentService.RequestCustomizer} that removes the dependencies whose
+ * version already carries the suffix of {@link VersioningState} (e.g. {@code 1.0.0.redhat-00003} for the incremental
+ * suffix {@code redhat}) from a {@link org.jboss.gm.analyzer.alignment.AlignmentService.Request}, as aligning them
+ * can't change anything.
+ * <p>
+ * The versions are split into their qualifier, build number and so on by PME's {@link Version}, as when calculating
+ * the suffixed versions, so that OSGi normalized versions (e.g. {@code 1.0.0.Final_redhat_00001}) are recognized too.
+ * Suffixes are compared regardless of case.
+ * </p>
+ */
+public class SuffixedDependencyExclusionCustomizer implements AlignmentService.RequestCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(SuffixedDependencyExclusionCustomizer.class);
+
+    // Same delimiters as the ones accepted by PME between the parts of a version
+    private static final String DELIMITERS = ".-_";
+
+    private final String incrementalSuffix;
+
+    private final String staticSuffix;
+
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    SuffixedDependencyExclusionCustomizer(String incrementalSuffix, String staticSuffix) {
+        this.incrementalSuffix = StringUtils.isNotEmpty(incrementalSuffix) ? incrementalSuffix : null;
+        this.staticSuffix = StringUtils.isNotEmpty(staticSuffix) ? staticSuffix : null;
+    }
+
+    @Override
+    public AlignmentService.Request customize(AlignmentService.Request request) {
+        final List<ProjectVersionRef> dependencies = new ArrayList<>(request.getDependencies().size());
+        int skippedInRequest = 0;
+
+        for (ProjectVersionRef dependency : request.getDependencies()) {
+            if (isSuffixed(dependency.getVersionString())) {
+                log.debug("Skipping alignment of already suffixed dependency {}", dependency);
+                skippedInRequest++;
+            } else {
+                dependencies.add(dependency);
+            }
+        }
+
+        skipped.addAndGet(skippedInRequest);
+        log.info("Skipped {} of {} dependencies which are already suffixed", skippedInRequest,
+                request.getDependencies().size());
+
+        return new AlignmentService.Request(request.getProject(), dependencies);
+    }
+
+    /**
+     * @return the number of dependencies that have been removed from the requests so far
+     */
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    boolean isSuffixed(String version) {
+        if (version == null) {
+            return false;
+        }
+        final String qualifier = Version.getQualifier(version);
+        // A version that is nothing but a qualifier isn't a suffixed version
+        if (qualifier.isEmpty() || qualifier.length() == version.length()) {
+            return false;
+        }
+
+        // e.g. the qualifier Final-redhat-00001 has the base Final-redhat and the build number 00001
+        if (incrementalSuffix != null && Version.hasBuildNumber(version)
+                && endsWithSuffix(Version.getQualifierBase(version), incrementalSuffix)) {
+            return true;
+        }
+        return staticSuffix != null && endsWithSuffix(qualifier, staticSuffix);
+    }
+
+    /**
+     * @return true if the qualifier is the suffix or ends with a delimiter followed by the suffix
+     */
+    private static boolean endsWithSuffix(String qualifier, String suffix) {
+        if (!StringUtils.endsWithIgnoreCase(qualifier, suffix)) {
+            return false;
+        }
+        final int start = qualifier.length() - suffix.length();
+        return start == 0 || DELIMITERS.indexOf(qualifier.charAt(start - 1)) >= 0;
+    }
+
+    public static AlignmentService.RequestCustomizer fromConfiguration(Configuration configuration) {
+        if (!configuration.skipSuffixedDependencies()) {
+            return AlignmentService.RequestCustomizer.NOOP;
+        }
+
+        final VersioningState state = new VersioningState(configuration.getProperties());
+        if (StringUtils.isEmpty(state.getIncrementalSerialSuffix()) && StringUtils.isEmpty(state.getSuffix())) {
+            return AlignmentService.RequestCustomizer.NOOP;
+        }
+
+        return new SuffixedDependencyExclusionCustomizer(state.getIncrementalSerialSuffix(), state.getSuffix());
+    }
+}
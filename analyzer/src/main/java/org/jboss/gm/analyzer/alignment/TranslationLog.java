@@ -0,0 +1,262 @@
+package org.jboss.gm.analyzer.alignment;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.commonjava.maven.ext.io.rest.Translator;
+import org.jboss.gm.common.versioning.ProjectVersionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append only log of the requests sent to the Dependency Analyzer and of its responses, which allows to replay an
+ * analysis without access to the Dependency Analyzer.
+ * <p>
+ * Each record consists of the SHA-256 of the request (which doesn't depend on the order of the GAVs), the length of
+ * the rest of the record, the requested GAVs and the aligned versions, the latter referring to the GAVs by their
+ * position in the request. When replaying, the log is scanned once to index the records by hash, and a record is only
+ * read when a request with the same hash is made. Requests that were never recorded as such (e.g. because the GAVs
+ * were chunked differently) are answered GAV by GAV from all the records, and fail if any GAV was never recorded.
+ * </p>
+ */
+final class TranslationLog {
+
+    private static final int HASH_SIZE = 32;
+
+    private TranslationLog() {
+    }
+
+    /**
+     * @param delegate the translator that actually calls the Dependency Analyzer
+     * @param logFile the log the requests and responses are appended to
+     * @return a translator that records the requests and responses of the delegate
+     */
+    static Translator recording(Translator delegate, File logFile) {
+        return new Recorder(delegate, logFile);
+    }
+
+    /**
+     * @param logFile a log written by a recording translator
+     * @return a translator that answers from the log
+     */
+    static Translator replaying(File logFile) {
+        return new Replayer(logFile);
+    }
+
+    static byte[] hash(List<ProjectVersionRef> request) {
+        final List<String> gavs = new ArrayList<>(request.size());
+        request.forEach(gav -> gavs.add(gav.getGroupId() + ':' + gav.getArtifactId() + ':' + gav.getVersionString()));
+        gavs.sort(null);
+        return DigestUtils.sha256(String.join("\n", gavs));
+    }
+
+    private static class Recorder implements Translator, Closeable {
+
+        private final Translator delegate;
+
+        private final File logFile;
+
+        private Recorder(Translator delegate, File logFile) {
+            this.delegate = delegate;
+            this.logFile = logFile;
+        }
+
+        @Override
+        public Map<ProjectVersionRef, String> translateVersions(List<ProjectVersionRef> request) {
+            final Map<ProjectVersionRef, String> response = delegate.translateVersions(request);
+
+            try {
+                append(request, response);
+            } catch (IOException e) {
+                throw new ManipulationUncheckedException("Unable to record Dependency Analyzer response to " + logFile, e);
+            }
+            return response;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate instanceof Closeable) {
+                ((Closeable) delegate).close();
+            }
+        }
+
+        private synchronized void append(List<ProjectVersionRef> request, Map<ProjectVersionRef, String> response)
+                throws IOException {
+            final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(payload)) {
+                out.writeInt(request.size());
+                for (ProjectVersionRef gav : request) {
+                    out.writeUTF(gav.getGroupId());
+                    out.writeUTF(gav.getArtifactId());
+                    out.writeUTF(gav.getVersionString());
+                }
+
+                final List<Integer> aligned = new ArrayList<>(response.size());
+                for (int i = 0; i < request.size(); i++) {
+                    if (response.get(request.get(i)) != null) {
+                        aligned.add(i);
+                    }
+                }
+                out.writeInt(aligned.size());
+                for (int i : aligned) {
+                    out.writeInt(i);
+                    out.writeUTF(response.get(request.get(i)));
+                }
+            }
+
+            Files.createDirectories(logFile.getAbsoluteFile().getParentFile().toPath());
+            try (OutputStream file = new FileOutputStream(logFile, true);
+                    DataOutputStream out = new DataOutputStream(file)) {
+                out.write(hash(request));
+                out.writeInt(payload.size());
+                payload.writeTo(out);
+            }
+        }
+    }
+
+    private static class Replayer implements Translator {
+
+        private final Logger logger = LoggerFactory.getLogger(getClass());
+
+        private final File logFile;
+
+        private final Map<String, Long> offsets = new HashMap<>();
+
+        private int recordCount;
+
+        private Map<ProjectVersionRef, String> recordedGavs;
+
+        private Replayer(File logFile) {
+            this.logFile = logFile;
+
+            try (DataInputStream in = open()) {
+                final byte[] hash = new byte[HASH_SIZE];
+                long offset = 0;
+
+                while (readHash(in, hash)) {
+                    final int length = in.readInt();
+                    if (in.skipBytes(length) < length) {
+                        // The recording was interrupted while writing the last record
+                        break;
+                    }
+                    // Identical requests recorded more than once are answered with the latest response
+                    offsets.put(Hex.encodeHexString(hash), offset + HASH_SIZE);
+                    offset += HASH_SIZE + Integer.BYTES + length;
+                    recordCount++;
+                }
+            } catch (EOFException e) {
+                // The recording was interrupted while writing the length of the last record
+                logger.warn("Ignoring truncated last record of Dependency Analyzer log {}", logFile);
+            } catch (IOException e) {
+                throw new ManipulationUncheckedException("Unable to read Dependency Analyzer log " + logFile, e);
+            }
+            logger.info("Replaying {} Dependency Analyzer requests from {}", offsets.size(), logFile);
+        }
+
+        @Override
+        public synchronized Map<ProjectVersionRef, String> translateVersions(List<ProjectVersionRef> request) {
+            final Long offset = offsets.get(Hex.encodeHexString(hash(request)));
+
+            try {
+                final Map<ProjectVersionRef, String> response = new HashMap<>();
+                if (offset != null) {
+                    try (RandomAccessFile file = new RandomAccessFile(logFile, "r")) {
+                        file.seek(offset);
+                        final byte[] payload = new byte[file.readInt()];
+                        file.readFully(payload);
+                        readPayload(new DataInputStream(new ByteArrayInputStream(payload)), response);
+                    }
+                } else {
+                    translateGavByGav(request, response);
+                }
+                response.values().removeIf(Objects::isNull);
+                return response;
+            } catch (IOException e) {
+                throw new ManipulationUncheckedException("Unable to read Dependency Analyzer log " + logFile, e);
+            }
+        }
+
+        private void translateGavByGav(List<ProjectVersionRef> request, Map<ProjectVersionRef, String> response)
+                throws IOException {
+            if (recordedGavs == null) {
+                recordedGavs = new HashMap<>();
+                try (DataInputStream in = open()) {
+                    final byte[] hash = new byte[HASH_SIZE];
+                    for (int i = 0; i < recordCount && readHash(in, hash); i++) {
+                        in.readInt();
+                        readPayload(in, recordedGavs);
+                    }
+                }
+            }
+
+            final List<ProjectVersionRef> missing = new ArrayList<>();
+            for (ProjectVersionRef gav : request) {
+                if (recordedGavs.containsKey(gav)) {
+                    response.put(gav, recordedGavs.get(gav));
+                } else {
+                    missing.add(gav);
+                }
+            }
+            // Aligning the GAVs as if the Dependency Analyzer had no version for them would silently change the result
+            if (!missing.isEmpty()) {
+                throw new ManipulationUncheckedException(String.format(
+                        "No recorded Dependency Analyzer response for %s in %s", missing, logFile));
+            }
+        }
+
+        private DataInputStream open() throws IOException {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile.toPath())));
+        }
+
+        private static boolean readHash(DataInputStream in, byte[] hash) throws IOException {
+            try {
+                in.readFully(hash);
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Adds the GAVs of a record to the response, with a null version for the ones that have no aligned version.
+         */
+        private static void readPayload(DataInputStream in, Map<ProjectVersionRef, String> response)
+                throws IOException {
+            final int requestSize = in.readInt();
+            final List<ProjectVersionRef> request = new ArrayList<>(requestSize);
+            for (int i = 0; i < requestSize; i++) {
+                request.add(ProjectVersionFactory.withGAV(in.readUTF(), in.readUTF(), in.readUTF()));
+            }
+
+            final String[] versions = new String[requestSize];
+            final int alignedSize = in.readInt();
+            for (int i = 0; i < alignedSize; i++) {
+                final int position = in.readInt();
+                versions[position] = in.readUTF();
+            }
+            for (int i = 0; i < requestSize; i++) {
+                response.put(request.get(i), versions[i]);
+            }
+        }
+    }
+}
@@ -15,13 +15,15 @@ import org.gradle.api.internal.project.DefaultProject;
 import org.jboss.gm.common.Configuration;
 import org.jboss.gm.common.ManipulationCache;
 import org.jboss.gm.common.io.ManipulationIO;
+import org.jboss.gm.common.model.ManipulationModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * {@link org.jboss.gm.analyzer.alignment.AlignmentService.ResponseCustomizer} that changes the project version
  *
- * The heavy lifting is actually done by {@link org.commonjava.maven.ext.core.impl.VersionCalculator}
+ * The heavy lifting is actually done by {@link org.commonjava.maven.ext.core.impl.VersionCalculator}. The new version is
+ * only calculated once per alignment, on first access.
  */
 public class UpdateProjectVersionCustomizer implements AlignmentService.ResponseCustomizer {
 
@@ -43,7 +45,7 @@ public class UpdateProjectVersionCustomizer implements AlignmentService.Response
         return new ProjectVersionCustomizerResponse(response, projects, configuration);
     }
 
-    private static class ProjectVersionCustomizerResponse implements AlignmentService.Response {
+    static class ProjectVersionCustomizerResponse implements AlignmentService.Response {
 
         private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -53,6 +55,15 @@ public class UpdateProjectVersionCustomizer implements AlignmentService.Response
         private final ManipulationCache cache;
         private final Project root;
 
+        private volatile String newProjectVersion;
+
+        private volatile long versionCalculationTime = -1;
+
+        // The manipulation model of a previous alignment, if any
+        private ManipulationModel existingModel;
+
+        private boolean existingModelRead;
+
         ProjectVersionCustomizerResponse(AlignmentService.Response originalResponse, Set<Project> projects,
                 Configuration configuration) {
             this.originalResponse = originalResponse;
@@ -78,11 +89,43 @@ public class UpdateProjectVersionCustomizer implements AlignmentService.Response
 
         @Override
         public String getNewProjectVersion() {
-            try {
-                return vc.calculate(root.getGroup().toString(), root.getName(), root.getVersion().toString(), state);
-            } catch (ManipulationException e) {
-                throw new ManipulationUncheckedException(e);
+            String result = newProjectVersion;
+            if (result == null) {
+                synchronized (this) {
+                    result = newProjectVersion;
+                    if (result == null) {
+                        final long start = System.currentTimeMillis();
+                        try {
+                            result = vc.calculate(root.getGroup().toString(), root.getName(),
+                                    root.getVersion().toString(), state);
+                        } catch (ManipulationException e) {
+                            throw new ManipulationUncheckedException(e);
+                        }
+                        versionCalculationTime = System.currentTimeMillis() - start;
+                        logger.info("Calculated project version {} in {} ms", result, versionCalculationTime);
+                        newProjectVersion = result;
+                    }
+                }
             }
+            return result;
+        }
+
+        /**
+         * @return the time in milliseconds the calculation of the new project version took, or -1 if it hasn't been
+         *         calculated yet
+         */
+        long getVersionCalculationTime() {
+            return versionCalculationTime;
+        }
+
+        private ManipulationModel getExistingModel() {
+            if (!existingModelRead) {
+                if (ManipulationIO.getManipulationFilePath(root.getRootDir()).toFile().exists()) {
+                    existingModel = ManipulationIO.readManipulationModel(root.getRootDir());
+                }
+                existingModelRead = true;
+            }
+            return existingModel;
         }
 
         @Override
@@ -110,14 +153,15 @@ public class UpdateProjectVersionCustomizer implements AlignmentService.Response
                 final Set<String> result = new HashSet<>();
 
                 // If there is an existing manipulation file, also use this as potential candidates.
-                if (ManipulationIO.getManipulationFilePath(root.getRootDir()).toFile().exists()) {
-
-                    result.add(ManipulationIO.readManipulationModel(root.getRootDir()).getVersion());
+                final ManipulationModel model = getExistingModel();
+                if (model != null) {
+                    result.add(model.getVersion());
                 }
                 logger.debug("Adding project version candidates from cache {} ", cache.getGAV());
 
+                final Map<ProjectVersionRef, String> translationMap = getTranslationMap();
                 cache.getGAV().forEach(pvr -> {
-                    String t = getTranslationMap().get(pvr);
+                    String t = translationMap.get(pvr);
                     if (StringUtils.isNotBlank(t)) {
                         result.add(t.trim());
                     }
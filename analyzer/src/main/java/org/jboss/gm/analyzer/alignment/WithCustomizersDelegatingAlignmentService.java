@@ -33,16 +33,24 @@ public class WithCustomizersDelegatingAlignmentService implements AlignmentServi
 
     @Override
     public Response align(Request request) {
-        for (RequestCustomizer requestCustomizer : requestCustomizers) {
-            request = requestCustomizer.customize(request);
-        }
-
-        Response response = delegate.align(request);
+        Response response = delegate.align(customize(request, requestCustomizers));
 
         for (ResponseCustomizer responseCustomizer : responseCustomizers) {
-            response = responseCustomizer.customize(response);
+            response = responseCustomizer.customize(request, response);
         }
 
         return response;
     }
+
+    /**
+     * @param request the request
+     * @param requestCustomizers the customizers, sorted by order
+     * @return the request as customized by each customizer in turn
+     */
+    static Request customize(Request request, List<RequestCustomizer> requestCustomizers) {
+        for (RequestCustomizer requestCustomizer : requestCustomizers) {
+            request = requestCustomizer.customize(request);
+        }
+        return request;
+    }
 }
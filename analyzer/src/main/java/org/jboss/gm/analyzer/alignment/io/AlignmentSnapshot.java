@@ -0,0 +1,116 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+
+/**
+ * Read only view of a snapshot written by {@link AlignmentSnapshotIO}, which maps each GA to the aligned versions
+ * available for it.
+ * <p>
+ * The snapshot is memory mapped and its entries are sorted, so opening it is cheap whatever its size and looking up
+ * a GA is a binary search that only reads the few pages it touches. Instances are safe for concurrent use.
+ * </p>
+ */
+public final class AlignmentSnapshot {
+
+    private final ByteBuffer buffer;
+
+    private final int size;
+
+    AlignmentSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.getInt(AlignmentSnapshotIO.COUNT_POSITION);
+    }
+
+    /**
+     * @return the number of GAs in the snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param ga the GA to look up
+     * @return the aligned versions available for the GA, in the order they were written
+     */
+    public List<String> getVersions(ProjectRef ga) {
+        final byte[] key = AlignmentSnapshotIO.key(ga);
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int entry = (int) buffer.getLong(AlignmentSnapshotIO.HEADER_SIZE + mid * Long.BYTES);
+            final int comparison = compareKey(entry, key);
+
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return readVersions(entry);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param consumer receives each GA of the snapshot along with its versions, in the order of the snapshot
+     */
+    public void forEach(BiConsumer<ProjectRef, List<String>> consumer) {
+        for (int i = 0; i < size; i++) {
+            final int entry = (int) buffer.getLong(AlignmentSnapshotIO.HEADER_SIZE + i * Long.BYTES);
+            final String key = readString(entry);
+            final int separator = key.indexOf(':');
+
+            consumer.accept(new SimpleProjectRef(key.substring(0, separator), key.substring(separator + 1)),
+                    readVersions(entry));
+        }
+    }
+
+    /**
+     * Only absolute reads are performed on the shared buffer so that lookups don't interfere with each other.
+     */
+    private int compareKey(int entry, byte[] key) {
+        final int length = Short.toUnsignedInt(buffer.getShort(entry));
+        final int common = Math.min(length, key.length);
+
+        for (int i = 0; i < common; i++) {
+            final int comparison = Integer.compare(Byte.toUnsignedInt(buffer.get(entry + Short.BYTES + i)),
+                    Byte.toUnsignedInt(key[i]));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private List<String> readVersions(int entry) {
+        int position = entry + Short.BYTES + Short.toUnsignedInt(buffer.getShort(entry));
+        final int count = buffer.getInt(position);
+        position += Integer.BYTES;
+
+        final List<String> versions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final String version = readString(position);
+            position += Short.BYTES + Short.toUnsignedInt(buffer.getShort(position));
+            versions.add(version);
+        }
+        return versions;
+    }
+
+    private String readString(int position) {
+        final byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(position))];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + Short.BYTES + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
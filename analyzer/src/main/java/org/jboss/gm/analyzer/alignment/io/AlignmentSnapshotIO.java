@@ -0,0 +1,152 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+
+/**
+ * Reads and writes snapshots mapping GAs to the aligned versions available for them, which allow to align a project
+ * without calling the Dependency Analyzer.
+ * <p>
+ * A snapshot starts with a header (magic number, format version and number of GAs) followed by the offset of each
+ * GA entry. The entries are sorted by the UTF-8 bytes of {@code groupId:artifactId}, and each consists of that key
+ * followed by the number of versions and the versions themselves. Strings are stored as their UTF-8 bytes prefixed
+ * by their length.
+ * </p>
+ */
+public final class AlignmentSnapshotIO {
+
+    static final int MAGIC = 0x474d4553;
+
+    static final int FORMAT = 1;
+
+    static final int COUNT_POSITION = 2 * Integer.BYTES;
+
+    static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    private AlignmentSnapshotIO() {
+    }
+
+    /**
+     * @param snapshotFile the file to write the snapshot to, it is replaced atomically if it exists
+     * @param versions the aligned versions available for each GA
+     */
+    public static void writeSnapshot(File snapshotFile, Map<? extends ProjectRef, ? extends Collection<String>> versions) {
+        final List<Entry> entries = new ArrayList<>(versions.size());
+        versions.forEach((ga, v) -> entries.add(new Entry(key(ga), v)));
+        entries.sort((e1, e2) -> compare(e1.key, e2.key));
+
+        long offset = HEADER_SIZE + (long) entries.size() * Long.BYTES;
+        for (Entry entry : entries) {
+            entry.offset = offset;
+            offset += entry.size();
+        }
+        if (offset > Integer.MAX_VALUE) {
+            throw new ManipulationUncheckedException("Snapshot " + snapshotFile + " would exceed 2GB");
+        }
+
+        try {
+            final File parent = snapshotFile.getAbsoluteFile().getParentFile();
+            Files.createDirectories(parent.toPath());
+            final File temp = File.createTempFile(snapshotFile.getName(), ".tmp", parent);
+
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    out.writeLong(entry.offset);
+                }
+                for (Entry entry : entries) {
+                    writeBytes(out, entry.key);
+                    out.writeInt(entry.versions.size());
+                    for (byte[] version : entry.versions) {
+                        writeBytes(out, version);
+                    }
+                }
+            }
+            Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to write alignment snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * @param snapshotFile the snapshot to read
+     * @return a view of the snapshot backed by the memory mapped file
+     */
+    public static AlignmentSnapshot readSnapshot(File snapshotFile) {
+        // The mapping remains valid once the channel is closed
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != FORMAT) {
+                throw new ManipulationUncheckedException(snapshotFile + " is not an alignment snapshot");
+            }
+            return new AlignmentSnapshot(buffer);
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read alignment snapshot " + snapshotFile, e);
+        }
+    }
+
+    static byte[] key(ProjectRef ga) {
+        return (ga.getGroupId() + ':' + ga.getArtifactId()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int compare(byte[] b1, byte[] b2) {
+        final int common = Math.min(b1.length, b2.length);
+        for (int i = 0; i < common; i++) {
+            final int comparison = Integer.compare(Byte.toUnsignedInt(b1[i]), Byte.toUnsignedInt(b2[i]));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(b1.length, b2.length);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes.length > 0xffff) {
+            throw new IOException("Value of " + bytes.length + " bytes is too long");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static class Entry {
+        private final byte[] key;
+
+        private final List<byte[]> versions;
+
+        private long offset;
+
+        Entry(byte[] key, Collection<String> versions) {
+            this.key = key;
+            this.versions = new ArrayList<>(versions.size());
+            versions.forEach(v -> this.versions.add(v.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        long size() {
+            long size = Short.BYTES + key.length + Integer.BYTES;
+            for (byte[] version : versions) {
+                size += Short.BYTES + version.length;
+            }
+            return size;
+        }
+    }
+}
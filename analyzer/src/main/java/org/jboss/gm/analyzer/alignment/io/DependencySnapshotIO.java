@@ -0,0 +1,88 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.jboss.gm.common.utils.SerializationUtils;
+import org.jboss.gm.common.versioning.ProjectVersionFactory;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Reads and writes the snapshot of the dependencies collected for a single project, i.e. the original dependency
+ * keys mapped to the resolved GAVs.
+ */
+public final class DependencySnapshotIO {
+
+    private DependencySnapshotIO() {
+    }
+
+    public static void writeSnapshot(File snapshotFile, Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies) {
+        final List<Entry> entries = new ArrayList<>(dependencies.size());
+        dependencies.forEach((original, resolved) -> entries.add(new Entry(original, resolved)));
+        // sort the entries so that the same dependencies always result in the same file
+        entries.sort(Comparator.comparing(Entry::toString));
+
+        try {
+            final File parent = snapshotFile.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Unable to create directory " + parent);
+            }
+            SerializationUtils.getObjectMapper().writerWithDefaultPrettyPrinter().writeValue(snapshotFile, entries);
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to write dependency snapshot " + snapshotFile, e);
+        }
+    }
+
+    public static HashMap<RelaxedProjectVersionRef, ProjectVersionRef> readSnapshot(File snapshotFile) {
+        final List<Entry> entries;
+        try {
+            entries = SerializationUtils.getObjectMapper().readValue(snapshotFile, new TypeReference<List<Entry>>() {
+            });
+        } catch (IOException e) {
+            throw new ManipulationUncheckedException("Unable to read dependency snapshot " + snapshotFile, e);
+        }
+
+        final HashMap<RelaxedProjectVersionRef, ProjectVersionRef> result = new HashMap<>();
+        for (Entry entry : entries) {
+            result.put(new RelaxedProjectVersionRef(entry.groupId, entry.artifactId, entry.version),
+                    ProjectVersionFactory.withGAV(entry.groupId, entry.artifactId, entry.resolvedVersion));
+        }
+        return result;
+    }
+
+    /**
+     * The original dependency and the resolved one always share group and artifact, so only the versions of both
+     * need to be stored.
+     */
+    static class Entry {
+        public String groupId;
+        public String artifactId;
+        public String version;
+        public String resolvedVersion;
+
+        @SuppressWarnings("unused")
+        Entry() {
+        }
+
+        Entry(RelaxedProjectVersionRef original, ProjectVersionRef resolved) {
+            this.groupId = original.getGroupId();
+            this.artifactId = original.getArtifactId();
+            this.version = original.getVersionString();
+            this.resolvedVersion = resolved.getVersionString();
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ':' + artifactId + ':' + version + ':' + resolvedVersion;
+        }
+    }
+}
@@ -7,15 +7,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
 import org.commonjava.maven.atlas.ident.ref.InvalidRefException;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 
@@ -26,10 +29,21 @@ public final class LockfileIO {
     private LockfileIO() {
     }
 
-    public static Set<ProjectVersionRef> allProjectVersionRefsFromLockfiles(Path locksRootPath) {
-        final Set<ProjectVersionRef> result = new HashSet<>();
+    /**
+     * Reads all the lockfiles and indexes the locked versions by configuration, group and artifact. As Gradle writes
+     * one lockfile per configuration, a module can be locked to different versions in different configurations.
+     *
+     * @param locksRootPath the directory containing the lockfiles
+     * @return for the name of each locked configuration, the locked version of each module
+     */
+    public static Map<String, Map<ProjectRef, String>> lockedVersionsByConfiguration(Path locksRootPath) {
+        final Map<String, Map<ProjectRef, String>> result = new HashMap<>();
         getAllLockfiles(locksRootPath).forEach(f -> {
-            result.addAll(readProjectVersionRefLocksOfFile(f));
+            final String configuration = f.getName().substring(0, f.getName().length() - LOCKFILE_EXTENSION.length());
+            final Map<ProjectRef, String> lockedVersions = new HashMap<>();
+            readProjectVersionRefLocksOfFile(f).forEach(pvr -> lockedVersions
+                    .put(new SimpleProjectRef(pvr.getGroupId(), pvr.getArtifactId()), pvr.getVersionString()));
+            result.put(configuration, lockedVersions);
         });
         return result;
     }
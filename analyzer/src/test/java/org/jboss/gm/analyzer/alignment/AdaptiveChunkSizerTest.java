@@ -0,0 +1,95 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AdaptiveChunkSizerTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private File stateFile;
+
+    @Before
+    public void setup() {
+        stateFile = new File(tempDir.getRoot(), "state/chunk-size.properties");
+    }
+
+    @Test
+    public void sizeGrowsWhileUnderLatencyTarget() {
+        final AdaptiveChunkSizer sut = new AdaptiveChunkSizer(stateFile, 100, 4, 1000, 500);
+
+        sut.onSuccess(100, 200);
+        assertThat(sut.getSize()).isEqualTo(150);
+        sut.onSuccess(150, 200);
+        assertThat(sut.getSize()).isEqualTo(225);
+
+        // too slow, so the size is kept
+        sut.onSuccess(225, 800);
+        assertThat(sut.getSize()).isEqualTo(225);
+
+        // a partial chunk says nothing about the current size
+        sut.onSuccess(10, 1);
+        assertThat(sut.getSize()).isEqualTo(225);
+    }
+
+    @Test
+    public void sizeStaysWithinBounds() {
+        final AdaptiveChunkSizer sut = new AdaptiveChunkSizer(stateFile, 800, 4, 1000, 500);
+
+        sut.onSuccess(800, 1);
+        assertThat(sut.getSize()).isEqualTo(1000);
+
+        for (int i = 0; i < 20; i++) {
+            sut.onFailure(sut.getSize());
+        }
+        assertThat(sut.getSize()).isEqualTo(4);
+    }
+
+    @Test
+    public void sizeShrinksOnFailure() {
+        final AdaptiveChunkSizer sut = new AdaptiveChunkSizer(stateFile, 200, 4, 1000, 500);
+
+        sut.onFailure(200);
+        assertThat(sut.getSize()).isEqualTo(100);
+
+        // the failure of an in flight chunk sent with a larger size doesn't grow the size back
+        sut.onFailure(400);
+        assertThat(sut.getSize()).isEqualTo(50);
+    }
+
+    @Test
+    public void lastGoodSizeIsUsedByNextRun() {
+        final AdaptiveChunkSizer first = new AdaptiveChunkSizer(stateFile, 100, 4, 1000, 500);
+        first.onSuccess(100, 100);
+        first.onSuccess(150, 100);
+        first.onFailure(225);
+        first.save();
+
+        assertThat(new AdaptiveChunkSizer(stateFile, 100, 4, 1000, 500).getSize()).isEqualTo(112);
+    }
+
+    @Test
+    public void nothingIsSavedWithoutGoodSize() {
+        final AdaptiveChunkSizer sut = new AdaptiveChunkSizer(stateFile, 100, 4, 1000, 500);
+        sut.onSuccess(100, 1000);
+        sut.save();
+
+        assertThat(stateFile).doesNotExist();
+    }
+
+    @Test
+    public void invalidStateIsIgnored() throws Exception {
+        FileUtils.writeStringToFile(stateFile, "chunkSize=lots", StandardCharsets.UTF_8);
+
+        assertThat(new AdaptiveChunkSizer(stateFile, 100, 4, 1000, 500).getSize()).isEqualTo(100);
+    }
+}
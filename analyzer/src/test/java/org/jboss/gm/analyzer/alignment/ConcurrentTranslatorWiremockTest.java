@@ -0,0 +1,283 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+
+public class ConcurrentTranslatorWiremockTest {
+
+    private static final String LOOKUP = "/da/rest/v-1/reports/lookup/gavs";
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+    private final ConcurrencyRecorder concurrency = new ConcurrencyRecorder();
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().extensions(concurrency));
+
+    @Test
+    public void chunksAreSentConcurrently() throws Exception {
+        stubFor(post(urlEqualTo(LOOKUP))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse())
+                        .withTransformers(ConcurrencyRecorder.NAME)));
+
+        final List<ProjectVersionRef> gavs = new ArrayList<>(Arrays.asList(HIBERNATE, UNDERTOW));
+        for (int i = 0; i < 6; i++) {
+            gavs.add(withGAV("org.acme", "dependency" + i, "1.0"));
+        }
+
+        final Map<ProjectVersionRef, String> result = newTranslator(2, 2).translateVersions(gavs);
+
+        assertThat(result)
+                .containsEntry(HIBERNATE, "5.3.7.Final-redhat-00001")
+                .containsEntry(UNDERTOW, "2.0.15.Final-redhat-00001");
+        verify(4, postRequestedFor(urlEqualTo(LOOKUP)));
+        // never more than maxInFlight
+        assertThat(concurrency.maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void onlyFailedChunkIsRetried() throws Exception {
+        stubFor(post(urlEqualTo(LOOKUP))
+                .withRequestBody(containing("hibernate-core"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse())));
+        stubFor(post(urlEqualTo(LOOKUP))
+                .withRequestBody(containing("undertow-core"))
+                .inScenario("undertow")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recovered"));
+        stubFor(post(urlEqualTo(LOOKUP))
+                .withRequestBody(containing("undertow-core"))
+                .inScenario("undertow")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse())));
+
+        final Map<ProjectVersionRef, String> result = newTranslator(1, 2)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+
+        assertThat(result)
+                .containsEntry(HIBERNATE, "5.3.7.Final-redhat-00001")
+                .containsEntry(UNDERTOW, "2.0.15.Final-redhat-00001");
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)).withRequestBody(containing("hibernate-core")));
+        verify(2, postRequestedFor(urlEqualTo(LOOKUP)).withRequestBody(containing("undertow-core")));
+    }
+
+    @Test
+    public void chunkFailingRepeatedlyFailsTranslation() {
+        stubFor(post(urlEqualTo(LOOKUP)).willReturn(aResponse().withStatus(503)));
+
+        assertThatThrownBy(() -> newTranslator(1, 2).translateVersions(Arrays.asList(HIBERNATE, UNDERTOW)))
+                .isInstanceOf(ManipulationUncheckedException.class)
+                .hasMessageContaining("failed " + ConcurrentTranslator.MAX_ATTEMPTS + " times");
+    }
+
+    @Test
+    public void clientErrorIsNotRetried() {
+        stubFor(post(urlEqualTo(LOOKUP)).willReturn(aResponse().withStatus(400).withBody("bad request")));
+
+        assertThatThrownBy(() -> newTranslator(1, 1).translateVersions(Arrays.asList(HIBERNATE)))
+                .isInstanceOf(ManipulationUncheckedException.class)
+                .hasMessageContaining("bad request");
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    @Test
+    public void requestsAndResponsesAreCompressed() throws Exception {
+        stubFor(post(urlEqualTo(LOOKUP))
+                .withHeader("Content-Encoding", equalTo("gzip"))
+                .withHeader("Accept-Encoding", containing("gzip"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withHeader("Content-Encoding", "gzip")
+                        .withBody(gzip(readSampleDAResponse()))));
+
+        final Map<ProjectVersionRef, String> result = newTranslator(1, 2, true)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+
+        assertThat(result)
+                .containsEntry(HIBERNATE, "5.3.7.Final-redhat-00001")
+                .containsEntry(UNDERTOW, "2.0.15.Final-redhat-00001");
+        verify(2, postRequestedFor(urlEqualTo(LOOKUP)).withHeader("Content-Encoding", equalTo("gzip")));
+    }
+
+    @Test
+    public void requestsAreSentUncompressedWhenCompressionIsRejected() throws Exception {
+        stubFor(post(urlEqualTo(LOOKUP))
+                .withHeader("Content-Encoding", equalTo("gzip"))
+                .willReturn(aResponse().withStatus(415)));
+        stubFor(post(urlEqualTo(LOOKUP))
+                .withHeader("Content-Encoding", absent())
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse())));
+
+        final Map<ProjectVersionRef, String> result = newTranslator(1, 1, true)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+
+        assertThat(result)
+                .containsEntry(HIBERNATE, "5.3.7.Final-redhat-00001")
+                .containsEntry(UNDERTOW, "2.0.15.Final-redhat-00001");
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)).withHeader("Content-Encoding", equalTo("gzip")));
+        verify(2, postRequestedFor(urlEqualTo(LOOKUP)).withHeader("Content-Encoding", absent()));
+    }
+
+    @Test
+    public void compressedBadRequestIsNotTakenForRejectedCompression() {
+        stubFor(post(urlEqualTo(LOOKUP)).willReturn(aResponse().withStatus(400).withBody("bad request")));
+
+        assertThatThrownBy(() -> newTranslator(1, 1, true).translateVersions(Arrays.asList(HIBERNATE)))
+                .isInstanceOf(ManipulationUncheckedException.class)
+                .hasMessageContaining("bad request");
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+        verify(0, postRequestedFor(urlEqualTo(LOOKUP)).withHeader("Content-Encoding", absent()));
+    }
+
+    @Test
+    public void requestsAreSentUncompressedWhenContentEncodingIsABadRequest() throws Exception {
+        stubFor(post(urlEqualTo(LOOKUP))
+                .withHeader("Content-Encoding", equalTo("gzip"))
+                .willReturn(aResponse().withStatus(400).withBody("Unsupported Content-Encoding: gzip")));
+        stubFor(post(urlEqualTo(LOOKUP))
+                .withHeader("Content-Encoding", absent())
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse())));
+
+        final Map<ProjectVersionRef, String> result = newTranslator(1, 1, true)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+
+        assertThat(result)
+                .containsEntry(HIBERNATE, "5.3.7.Final-redhat-00001")
+                .containsEntry(UNDERTOW, "2.0.15.Final-redhat-00001");
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)).withHeader("Content-Encoding", equalTo("gzip")));
+    }
+
+    @Test
+    public void translatorCanBeUsedUntilClosed() throws Exception {
+        stubFor(post(urlEqualTo(LOOKUP))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse())));
+
+        try (ConcurrentTranslator translator = newTranslator(1, 1)) {
+            assertThat(translator.translateVersions(Arrays.asList(HIBERNATE))).containsKey(HIBERNATE);
+            assertThat(translator.translateVersions(Arrays.asList(UNDERTOW))).containsKey(UNDERTOW);
+        }
+        verify(2, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    private ConcurrentTranslator newTranslator(int chunkSize, int maxInFlight) {
+        return newTranslator(chunkSize, maxInFlight, false);
+    }
+
+    private ConcurrentTranslator newTranslator(int chunkSize, int maxInFlight, boolean compression) {
+        return new ConcurrentTranslator(
+                Collections.singletonList(String.format("http://localhost:%d/da/rest/v-1", wireMockRule.port())),
+                chunkSize, 1, maxInFlight, null, "redhat", () -> "test", null, compression, 0);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Records the highest number of requests being processed by the server at the same time. Each request is held for a
+     * while so that the requests sent concurrently overlap.
+     */
+    private static class ConcurrencyRecorder extends ResponseDefinitionTransformer {
+
+        private static final String NAME = "concurrency-recorder";
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files,
+                Parameters parameters) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return responseDefinition;
+        }
+
+        @Override
+        public boolean applyGlobally() {
+            return false;
+        }
+
+        @Override
+        public String getName() {
+            return NAME;
+        }
+    }
+
+    private String readSampleDAResponse() throws URISyntaxException, IOException {
+        return FileUtils.readFileToString(
+                Paths.get(ConcurrentTranslatorWiremockTest.class.getClassLoader().getResource("sample-da-response.json")
+                        .toURI()).toFile(),
+                StandardCharsets.UTF_8.name());
+    }
+}
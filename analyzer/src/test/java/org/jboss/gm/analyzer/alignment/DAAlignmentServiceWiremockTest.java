@@ -1,12 +1,16 @@
 package org.jboss.gm.analyzer.alignment;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -17,11 +21,15 @@ import java.util.Collections;
 import org.aeonbits.owner.ConfigFactory;
 import org.apache.commons.io.FileUtils;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.jboss.gm.analyzer.alignment.io.AlignmentSnapshot;
+import org.jboss.gm.analyzer.alignment.io.AlignmentSnapshotIO;
 import org.jboss.gm.common.Configuration;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestRule;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
@@ -33,6 +41,9 @@ public class DAAlignmentServiceWiremockTest {
     @Rule
     public final TestRule restoreSystemProperties = new RestoreSystemProperties();
 
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
     @Rule
     public WireMockRule wireMockRule = new WireMockRule(PORT);
 
@@ -72,6 +83,84 @@ public class DAAlignmentServiceWiremockTest {
         });
     }
 
+    @Test
+    public void cachedDependenciesAreNotSentAgain() throws IOException {
+
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("restCacheDirectory", tempDir.newFolder().getAbsolutePath());
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final ProjectVersionRef projectGav = withGAV("org.acme", "dummy", "1.0.0");
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+        final AlignmentService.Request request = new AlignmentService.Request(
+                Collections.singletonList(projectGav),
+                Arrays.asList(hibernateGav, mockitoGav));
+
+        new DAAlignmentService(configuration).align(request);
+        final AlignmentService.Response response = new DAAlignmentService(configuration).align(request);
+
+        assertThat(response.getAlignedVersionOfGav(hibernateGav)).isEqualTo("5.3.7.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(mockitoGav)).isNull();
+        // the project is always sent, the dependencies only the first time
+        verify(3, postRequestedFor(urlEqualTo("/da/rest/v-1/reports/lookup/gavs")));
+        verify(1, postRequestedFor(urlEqualTo("/da/rest/v-1/reports/lookup/gavs"))
+                .withRequestBody(containing("hibernate-core")));
+    }
+
+    @Test
+    public void dependenciesAnsweredByTheCachesAreRecorded() throws IOException {
+
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("restMaxInFlight", "2");
+        System.setProperty("restCacheDirectory", tempDir.newFolder().getAbsolutePath());
+        final String log = new File(tempDir.getRoot(), "da.log").getAbsolutePath();
+
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final AlignmentService.Request request = new AlignmentService.Request(
+                Collections.singletonList(withGAV("org.acme", "dummy", "1.0.0")),
+                Collections.singletonList(hibernateGav));
+
+        // fills the persistent cache
+        new DAAlignmentService(ConfigFactory.create(Configuration.class)).align(request);
+        System.setProperty("restRecordLog", log);
+        new DAAlignmentService(ConfigFactory.create(Configuration.class)).align(request);
+        System.clearProperty("restRecordLog");
+        System.setProperty("restReplayLog", log);
+        final AlignmentService.Response response = new DAAlignmentService(ConfigFactory.create(Configuration.class))
+                .align(request);
+
+        assertThat(response.getAlignedVersionOfGav(hibernateGav)).isEqualTo("5.3.7.Final-redhat-00001");
+        verify(2, postRequestedFor(urlEqualTo("/da/rest/v-1/reports/lookup/gavs"))
+                .withRequestBody(containing("hibernate-core")));
+    }
+
+    @Test
+    public void dependenciesAreExportedOnClose() throws IOException {
+
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("restMaxInFlight", "2");
+        final File snapshotFile = new File(tempDir.getRoot(), "snapshot.bin");
+        System.setProperty("alignmentSnapshotExport", snapshotFile.getAbsolutePath());
+
+        final ProjectVersionRef projectGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+        final DAAlignmentService sut = new DAAlignmentService(ConfigFactory.create(Configuration.class));
+        sut.align(new AlignmentService.Request(Collections.singletonList(projectGav),
+                Collections.singletonList(undertowGav)));
+        sut.align(new AlignmentService.Request(Collections.singletonList(withGAV("org.acme", "dummy", "1.0.0")),
+                Collections.singletonList(undertowGav)));
+
+        assertThat(snapshotFile).doesNotExist();
+        sut.close();
+
+        final AlignmentSnapshot snapshot = AlignmentSnapshotIO.readSnapshot(snapshotFile);
+        assertThat(snapshot.getVersions(new SimpleProjectRef("io.undertow", "undertow-core")))
+                .containsExactly("2.0.15.Final-redhat-00001");
+        // the version of the projects isn't exported
+        assertThat(snapshot.size()).isEqualTo(1);
+    }
+
     private String readSampleDAResponse() throws URISyntaxException, IOException {
         return FileUtils.readFileToString(
                 Paths.get(DAAlignmentServiceWiremockTest.class.getClassLoader().getResource("sample-da-response.json")
@@ -0,0 +1,118 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.Configuration;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TestRule;
+
+public class DAMemoCacheTest {
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+    private static final ProjectVersionRef MOCKITO = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    @Rule
+    public final TestRule restoreSystemProperties = new RestoreSystemProperties();
+
+    private final List<List<ProjectVersionRef>> requests = new ArrayList<>();
+
+    private long now;
+
+    @After
+    public void clear() {
+        DAMemoCache.clear();
+    }
+
+    @Test
+    public void negativeResultsShouldBeMemoized() {
+        final DAMemoCache cache = new DAMemoCache(10, 1000, 100, () -> now);
+        final List<ProjectVersionRef> gavs = Arrays.asList(HIBERNATE, MOCKITO);
+
+        final Map<ProjectVersionRef, String> first = cache.translateVersions(gavs, this::translate);
+        final Map<ProjectVersionRef, String> second = cache.translateVersions(gavs, this::translate);
+
+        assertThat(first).containsOnlyKeys(HIBERNATE);
+        assertThat(second).isEqualTo(first);
+        assertThat(requests).containsExactly(gavs);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesShouldBeEvicted() {
+        final DAMemoCache cache = new DAMemoCache(2, 1000, 100, () -> now);
+        cache.translateVersions(Arrays.asList(HIBERNATE, UNDERTOW), this::translate);
+        // makes undertow the least recently used entry
+        cache.translateVersions(Collections.singletonList(HIBERNATE), this::translate);
+        cache.translateVersions(Collections.singletonList(MOCKITO), this::translate);
+
+        cache.translateVersions(Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO), this::translate);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(requests).last().isEqualTo(Collections.singletonList(UNDERTOW));
+    }
+
+    @Test
+    public void entriesShouldExpire() {
+        final DAMemoCache cache = new DAMemoCache(10, 1000, 100, () -> now);
+        final List<ProjectVersionRef> gavs = Arrays.asList(HIBERNATE, MOCKITO);
+        cache.translateVersions(gavs, this::translate);
+
+        now = 100;
+        cache.translateVersions(gavs, this::translate);
+        now = 150;
+        cache.translateVersions(gavs, this::translate);
+        now = 1000;
+        cache.translateVersions(gavs, this::translate);
+
+        assertThat(requests).containsExactly(gavs, Collections.singletonList(MOCKITO), gavs);
+    }
+
+    @Test
+    public void cacheShouldBeClearedWhenConfigured() {
+        System.setProperty(Configuration.DA, "http://localhost/da/rest/v-1");
+        System.setProperty("restMemoCacheSize", "100");
+        final DAMemoCache cache = DAMemoCache.fromConfiguration(ConfigFactory.create(Configuration.class));
+
+        System.setProperty("restMemoCacheClear", "true");
+        assertThat(DAMemoCache.fromConfiguration(ConfigFactory.create(Configuration.class))).isNotSameAs(cache);
+    }
+
+    @Test
+    public void cacheShouldBeSharedBetweenBuildsWithTheSameConfiguration() {
+        System.setProperty(Configuration.DA, "http://localhost/da/rest/v-1");
+        System.setProperty("restMemoCacheSize", "100");
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        assertThat(DAMemoCache.fromConfiguration(configuration))
+                .isSameAs(DAMemoCache.fromConfiguration(ConfigFactory.create(Configuration.class)));
+
+        System.setProperty("restRepositoryGroup", "other");
+        assertThat(DAMemoCache.fromConfiguration(ConfigFactory.create(Configuration.class)))
+                .isNotSameAs(DAMemoCache.fromConfiguration(configuration));
+
+        System.setProperty("restMemoCacheSize", "0");
+        assertThat(DAMemoCache.fromConfiguration(ConfigFactory.create(Configuration.class))).isNull();
+    }
+
+    private Map<ProjectVersionRef, String> translate(List<ProjectVersionRef> gavs) {
+        requests.add(gavs);
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        gavs.stream()
+                .filter(gav -> !gav.getGroupId().equals("org.mockito"))
+                .forEach(gav -> result.put(gav, gav.getVersionString() + "-redhat-00001"));
+        return result;
+    }
+}
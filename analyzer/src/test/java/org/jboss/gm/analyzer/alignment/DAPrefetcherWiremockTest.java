@@ -0,0 +1,104 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.jboss.gm.common.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TestRule;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+
+public class DAPrefetcherWiremockTest {
+
+    private static final int PORT = 8089;
+
+    private static final String LOOKUP = "/da/rest/v-1/reports/lookup/gavs";
+
+    private static final ProjectVersionRef PROJECT = withGAV("org.acme", "dummy", "1.0.0");
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+    private static final ProjectVersionRef MOCKITO = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    @Rule
+    public final TestRule restoreSystemProperties = new RestoreSystemProperties();
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(PORT);
+
+    @Test
+    public void onlyDependenciesThatWereNotPrefetchedAreSent() throws Exception {
+        stubFor(post(urlEqualTo(LOOKUP))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse())));
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("restMaxInFlight", "2");
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final DAPrefetcher prefetcher = new DAPrefetcher(new DAAlignmentService(configuration),
+                Collections.emptyList());
+        prefetcher.submit(Arrays.asList(HIBERNATE, UNDERTOW));
+        prefetcher.submit(Collections.singletonList(UNDERTOW));
+        final AlignmentService.Response response = prefetcher.align(new AlignmentService.Request(
+                Collections.singletonList(PROJECT), Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO)));
+
+        assertThat(response.getAlignedVersionOfGav(HIBERNATE)).isEqualTo("5.3.7.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(UNDERTOW)).isEqualTo("2.0.15.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(MOCKITO)).isNull();
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)).withRequestBody(containing("undertow-core")));
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)).withRequestBody(containing("mockito-core")));
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)).withRequestBody(containing("hibernate-core")));
+    }
+
+    @Test
+    public void excludedDependenciesAreNotPrefetched() throws Exception {
+        stubFor(post(urlEqualTo(LOOKUP))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json;charset=utf-8")
+                        .withBody(readSampleDAResponse())));
+        System.setProperty(Configuration.DA, String.format("http://localhost:%d/da/rest/v-1", PORT));
+        System.setProperty("restMaxInFlight", "2");
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+
+        final DAPrefetcher prefetcher = new DAPrefetcher(new DAAlignmentService(configuration),
+                Collections.singletonList(new DependencyExclusionCustomizer(
+                        Collections.singleton(new SimpleProjectRef("org.mockito", "*")))));
+        prefetcher.submit(Arrays.asList(HIBERNATE, MOCKITO));
+        final AlignmentService.Response response = prefetcher.align(new AlignmentService.Request(
+                Collections.singletonList(PROJECT), Collections.singletonList(HIBERNATE)));
+
+        assertThat(response.getAlignedVersionOfGav(HIBERNATE)).isEqualTo("5.3.7.Final-redhat-00001");
+        verify(1, postRequestedFor(urlEqualTo(LOOKUP)).withRequestBody(containing("hibernate-core")));
+        verify(0, postRequestedFor(urlEqualTo(LOOKUP)).withRequestBody(containing("mockito-core")));
+    }
+
+    private String readSampleDAResponse() throws URISyntaxException, IOException {
+        return FileUtils.readFileToString(
+                Paths.get(DAPrefetcherWiremockTest.class.getClassLoader().getResource("sample-da-response.json")
+                        .toURI()).toFile(),
+                StandardCharsets.UTF_8.name());
+    }
+}
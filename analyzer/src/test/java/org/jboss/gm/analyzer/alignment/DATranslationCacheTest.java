@@ -0,0 +1,118 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DATranslationCacheTest {
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+    private static final ProjectVersionRef MOCKITO = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private final List<List<ProjectVersionRef>> requests = new ArrayList<>();
+
+    private File cacheFile;
+
+    @Before
+    public void setup() {
+        cacheFile = new File(tempDir.getRoot(), "cache/da.json");
+    }
+
+    @Test
+    public void onlyMissesShouldBeTranslated() {
+        final List<ProjectVersionRef> gavs = Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO);
+
+        final Map<ProjectVersionRef, String> first = newCache(100, 10, -1).translateVersions(gavs, this::translate);
+        final Map<ProjectVersionRef, String> second = newCache(100, 10, -1).translateVersions(gavs, this::translate);
+
+        assertThat(first).containsOnlyKeys(HIBERNATE, UNDERTOW);
+        assertThat(second).isEqualTo(first);
+        assertThat(requests).containsExactly(gavs);
+    }
+
+    @Test
+    public void expiredEntriesShouldBeTranslatedAgain() {
+        final List<ProjectVersionRef> gavs = Arrays.asList(HIBERNATE, MOCKITO);
+
+        newCache(100, 10, -1).translateVersions(gavs, this::translate);
+        // only the negative entry of mockito has expired
+        clock.addAndGet(50);
+        newCache(100, 10, -1).translateVersions(gavs, this::translate);
+        // both entries have expired
+        clock.addAndGet(100);
+        newCache(100, 10, -1).translateVersions(gavs, this::translate);
+
+        assertThat(requests).containsExactly(gavs, Collections.singletonList(MOCKITO), gavs);
+    }
+
+    @Test
+    public void oldestEntriesShouldBeEvicted() {
+        newCache(100, 100, 2).translateVersions(Collections.singletonList(HIBERNATE), this::translate);
+        clock.incrementAndGet();
+        newCache(100, 100, 2).translateVersions(Arrays.asList(UNDERTOW, MOCKITO), this::translate);
+        clock.incrementAndGet();
+        newCache(100, 100, 2).translateVersions(Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO), this::translate);
+
+        assertThat(requests.get(2)).containsExactly(HIBERNATE);
+    }
+
+    @Test
+    public void entriesWrittenConcurrentlyShouldBeMerged() {
+        // another build caches undertow while this one is waiting for the Dependency Analyzer
+        newCache(100, 10, -1).translateVersions(Collections.singletonList(HIBERNATE), gavs -> {
+            newCache(100, 10, -1).translateVersions(Collections.singletonList(UNDERTOW), this::translate);
+            return translate(gavs);
+        });
+        newCache(100, 10, -1).translateVersions(Arrays.asList(HIBERNATE, UNDERTOW), this::translate);
+
+        assertThat(requests).containsExactly(Collections.singletonList(UNDERTOW), Collections.singletonList(HIBERNATE));
+    }
+
+    @Test
+    public void corruptedCacheShouldBeIgnored() throws Exception {
+        assertThat(cacheFile.getParentFile().mkdirs()).isTrue();
+        assertThat(cacheFile.createNewFile()).isTrue();
+
+        final Map<ProjectVersionRef, String> result = newCache(100, 10, -1)
+                .translateVersions(Collections.singletonList(HIBERNATE), this::translate);
+
+        assertThat(result).containsEntry(HIBERNATE, "5.3.7.Final-redhat-00001");
+        assertThat(newCache(100, 10, -1).translateVersions(Collections.singletonList(HIBERNATE), this::translate))
+                .isEqualTo(result);
+        assertThat(requests).hasSize(1);
+    }
+
+    private DATranslationCache newCache(long ttl, long negativeTtl, int maxSize) {
+        return new DATranslationCache(cacheFile, ttl, negativeTtl, maxSize, clock::get);
+    }
+
+    private Map<ProjectVersionRef, String> translate(List<ProjectVersionRef> gavs) {
+        requests.add(new ArrayList<>(gavs));
+
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        gavs.stream()
+                .filter(gav -> !gav.equals(MOCKITO))
+                .forEach(gav -> result.put(gav, gav.getVersionString() + "-redhat-00001"));
+        return result;
+    }
+}
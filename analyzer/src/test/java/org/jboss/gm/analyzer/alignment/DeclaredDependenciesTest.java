@@ -0,0 +1,31 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency;
+import org.junit.Test;
+
+public class DeclaredDependenciesTest {
+
+    @Test
+    public void ensureDeclaredDependenciesAreFoundByGroupAndName() {
+        final Dependency undertow = new DefaultExternalModuleDependency("io.undertow", "undertow-core", "2.0.19.Final");
+        final Dependency undertowRange = new DefaultExternalModuleDependency("io.undertow", "undertow-core",
+                "[2.0.0, 2.0.20)");
+        final Dependency lang = new DefaultExternalModuleDependency("org.apache.commons", "commons-lang3",
+                "latest.release");
+
+        final DeclaredDependencies declaredDependencies = new DeclaredDependencies(
+                Arrays.asList(undertow, lang, undertowRange));
+
+        assertThat(declaredDependencies.find("io.undertow", "undertow-core")).containsExactly(undertow, undertowRange);
+        assertThat(declaredDependencies.find("org.apache.commons", "commons-lang3")).containsExactly(lang);
+        assertThat(declaredDependencies.find("org.apache.commons", "commons-io")).isEmpty();
+        assertThat(declaredDependencies.find(null, "commons-lang3")).isEmpty();
+        assertThat(declaredDependencies.isProjectDependency("org.apache.commons", "commons-lang3", "latest.release"))
+                .isFalse();
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Collections;
 import java.util.function.Predicate;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.junit.Test;
 
 public class DependencyExclusionCustomizerTest {
@@ -31,4 +32,24 @@ public class DependencyExclusionCustomizerTest {
             assertThat(r.getDependencies()).extracting("artifactId").containsOnly("undertow-core", "mockito-core");
         });
     }
+
+    @Test
+    public void ensureExclusionOfIndexedDependenciesWorks() {
+        final ProjectVersionRef project = withGAV("org.acme", "dummy", "1.0.0");
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+        final ProjectVersionRef undertowServletGav = withGAV("io.undertow", "undertow-servlet", "2.0.15.Final");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+        final DependencyExclusionCustomizer sut = new DependencyExclusionCustomizer(Arrays.asList(
+                new SimpleProjectRef("org.hibernate", "*"),
+                new SimpleProjectRef("io.undertow", "undertow-servlet"),
+                new SimpleProjectRef("org.mock*", "*")));
+
+        final AlignmentService.Request customizedReq = sut.customize(new AlignmentService.Request(
+                Collections.singletonList(project),
+                Arrays.asList(hibernateGav, undertowGav, undertowServletGav, mockitoGav)));
+
+        assertThat(customizedReq.getDependencies()).containsExactly(undertowGav);
+    }
 }
@@ -3,10 +3,16 @@ package org.jboss.gm.analyzer.alignment;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
 import static org.mockito.ArgumentMatchers.any;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
@@ -45,9 +51,69 @@ public class DependencyOverrideCustomizerTest {
             assertThat(r.getNewProjectVersion()).isEqualTo(newProjectVersion);
             // make sure the matched dependency's version has changed
             assertThat(r.getAlignedVersionOfGav(hibernateGav)).isEqualTo(expectedHibernateVersion);
-            // make sure that non matched dependencies still return their original value
-            assertThat(r.getAlignedVersionOfGav(undertowGav)).isEqualTo(undertowGav.getVersionString());
+            // make sure that non matched dependencies still return the value of the original response
+            assertThat(r.getAlignedVersionOfGav(undertowGav)).isEqualTo(undertowGav.getVersionString() + DEFAULT_SUFFIX);
         });
     }
 
+    @Test
+    public void ensureTranslationMapIsOverriddenOnce() {
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+        final String expectedHibernateVersion = "5.3.7.Final-redhat-00002";
+        final DependencyOverrideCustomizer sut = new DependencyOverrideCustomizer(new HashMap<ProjectRef, String>() {
+            {
+                put(new SimpleProjectRef("org.hibernate", "*"), expectedHibernateVersion);
+            }
+        });
+
+        final Map<ProjectVersionRef, String> originalTranslationMap = new HashMap<>();
+        originalTranslationMap.put(hibernateGav, hibernateGav.getVersionString() + DEFAULT_SUFFIX);
+        originalTranslationMap.put(undertowGav, undertowGav.getVersionString() + DEFAULT_SUFFIX);
+        final AlignmentService.Response originalResp = mock(AlignmentService.Response.class);
+        when(originalResp.getTranslationMap()).thenReturn(originalTranslationMap);
+
+        final AlignmentService.Response customizedReq = sut.customize(originalResp);
+        final Map<ProjectVersionRef, String> translationMap = customizedReq.getTranslationMap();
+
+        assertThat(translationMap).hasSize(2)
+                .containsEntry(hibernateGav, expectedHibernateVersion)
+                .containsEntry(undertowGav, undertowGav.getVersionString() + DEFAULT_SUFFIX);
+        assertThat(customizedReq.getTranslationMap()).isSameAs(translationMap);
+        assertThatThrownBy(() -> translationMap.put(undertowGav, "2.0.15.Final"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        verify(originalResp, times(1)).getTranslationMap();
+    }
+
+    @Test
+    public void ensureTranslationMapAgreesWithAlignedVersions() {
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef hibernateValidatorGav = withGAV("org.hibernate", "hibernate-validator", "6.0.16.Final");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+        final DependencyOverrideCustomizer sut = new DependencyOverrideCustomizer(new HashMap<ProjectRef, String>() {
+            {
+                put(new SimpleProjectRef("org.hibernate", "*"), "5.3.7.Final-redhat-00002");
+            }
+        });
+
+        // the Dependency Analyzer has no version for hibernate-validator
+        final Map<ProjectVersionRef, String> originalTranslationMap = new HashMap<>();
+        originalTranslationMap.put(hibernateGav, hibernateGav.getVersionString() + DEFAULT_SUFFIX);
+        originalTranslationMap.put(undertowGav, undertowGav.getVersionString() + DEFAULT_SUFFIX);
+        final AlignmentService.Response originalResp = mock(AlignmentService.Response.class);
+        when(originalResp.getTranslationMap()).thenReturn(originalTranslationMap);
+        when(originalResp.getAlignedVersionOfGav(any(ProjectVersionRef.class)))
+                .thenAnswer(invocation -> originalTranslationMap.get(invocation.getArguments()[0]));
+        final AlignmentService.Request request = new AlignmentService.Request(Collections.emptyList(),
+                Arrays.asList(hibernateGav, hibernateValidatorGav, undertowGav));
+
+        final AlignmentService.Response customizedReq = sut.customize(request, originalResp);
+
+        assertThat(customizedReq.getTranslationMap()).containsOnlyKeys(hibernateGav, hibernateValidatorGav, undertowGav)
+                .allSatisfy((gav, version) -> assertThat(version).isEqualTo(customizedReq.getAlignedVersionOfGav(gav)))
+                .containsEntry(hibernateValidatorGav, "5.3.7.Final-redhat-00002")
+                .containsEntry(undertowGav, undertowGav.getVersionString() + DEFAULT_SUFFIX);
+    }
 }
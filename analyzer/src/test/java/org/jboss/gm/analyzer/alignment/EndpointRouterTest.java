@@ -0,0 +1,56 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class EndpointRouterTest {
+
+    private final AtomicLong clock = new AtomicLong(1000);
+
+    private final EndpointRouter router = new EndpointRouter(Arrays.asList("a", "b", "c"), clock::get);
+
+    private final List<EndpointRouter.Endpoint> endpoints = router.getEndpoints();
+
+    @Test
+    public void lowestLatencyShouldBeSelected() {
+        router.onSuccess(endpoints.get(0), 300);
+        router.onSuccess(endpoints.get(1), 100);
+        router.onSuccess(endpoints.get(2), 200);
+
+        assertThat(router.select(Collections.emptyList())).isSameAs(endpoints.get(1));
+        assertThat(router.select(Collections.singletonList(endpoints.get(1)))).isSameAs(endpoints.get(2));
+        assertThat(router.select(endpoints)).isNull();
+    }
+
+    @Test
+    public void unmeasuredEndpointsShouldBeTriedFirst() {
+        router.onSuccess(endpoints.get(0), 10);
+
+        assertThat(router.select(Collections.emptyList())).isSameAs(endpoints.get(1));
+    }
+
+    @Test
+    public void failedEndpointsShouldBeAvoidedUntilTheyCoolDown() {
+        router.onFailure(endpoints.get(0));
+        router.onSuccess(endpoints.get(1), 100);
+        router.onFailure(endpoints.get(2));
+        clock.addAndGet(10);
+        router.onFailure(endpoints.get(1));
+
+        // all endpoints are down, so the one that recovers first is used
+        assertThat(router.select(Collections.emptyList())).isSameAs(endpoints.get(0));
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(EndpointRouter.COOLDOWN_SECONDS));
+        assertThat(router.select(Collections.emptyList())).isSameAs(endpoints.get(0));
+        router.onSuccess(endpoints.get(0), 500);
+        router.onSuccess(endpoints.get(2), 300);
+        assertThat(router.select(Collections.emptyList())).isSameAs(endpoints.get(1));
+    }
+}
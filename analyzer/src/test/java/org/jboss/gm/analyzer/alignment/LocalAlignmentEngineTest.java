@@ -0,0 +1,75 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.junit.Test;
+
+public class LocalAlignmentEngineTest {
+
+    private final LocalAlignmentEngine engine = new LocalAlignmentEngine("redhat");
+
+    @Test
+    public void baseVersionsShouldBeNormalizedToOsgi() {
+        assertThat(engine.baseVersion("1")).isEqualTo("1.0.0");
+        assertThat(engine.baseVersion("1.2-Final")).isEqualTo("1.2.0.Final");
+        assertThat(engine.baseVersion("1.2.3GA")).isEqualTo("1.2.3.GA");
+        assertThat(engine.baseVersion("1.2.3-rc.1")).isEqualTo("1.2.3.rc_1");
+        assertThat(engine.baseVersion("1.2.3.Final-redhat-00001")).isEqualTo("1.2.3.Final");
+        assertThat(engine.baseVersion("1.2.redhat-1")).isEqualTo("1.2.0");
+        assertThat(engine.baseVersion("1.2.3.redhatter-1")).isEqualTo("1.2.3.redhatter-1");
+    }
+
+    @Test
+    public void suffixShouldBeMatchedRegardlessOfCase() {
+        final LocalAlignmentEngine.VersionIndex index = engine.index(Arrays.asList(
+                "1.0.0.RedHat-00002", "1.0.0.Final-REDHAT-00003", "1.0.0.redhatter-00004"));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.bestMatch("1.0")).isEqualTo("1.0.0.RedHat-00002");
+        assertThat(index.bestMatch("1.0.0.Final")).isEqualTo("1.0.0.Final-REDHAT-00003");
+    }
+
+    @Test
+    public void highestBuildNumberOfSameBaseVersionShouldBePicked() {
+        final LocalAlignmentEngine.VersionIndex index = engine.index(Arrays.asList(
+                "1.0.0.redhat-00002", "1.0.redhat-00010", "1.0.0.redhat-3", "1.1.0.redhat-00020", "1.0.0",
+                "1.0.0.Final-redhat-00001"));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.bestMatch("1.0")).isEqualTo("1.0.redhat-00010");
+        assertThat(index.bestMatch("1.0.0")).isEqualTo("1.0.redhat-00010");
+        assertThat(index.bestMatch("1.0.0.redhat-00002")).isEqualTo("1.0.redhat-00010");
+        assertThat(index.bestMatch("1.0-Final")).isEqualTo("1.0.0.Final-redhat-00001");
+        assertThat(index.bestMatch("1.1")).isEqualTo("1.1.0.redhat-00020");
+        assertThat(index.bestMatch("1.2")).isNull();
+    }
+
+    @Test
+    public void availableVersionsShouldBeRequestedOncePerGa() {
+        final List<ProjectRef> requested = new ArrayList<>();
+        final ProjectVersionRef hibernate1 = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+        final ProjectVersionRef hibernate2 = withGAV("org.hibernate", "hibernate-core", "5.3.6.Final");
+        final ProjectVersionRef undertow = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+        final Map<ProjectVersionRef, String> translationMap = engine.align(
+                Arrays.asList(hibernate1, hibernate2, undertow), ga -> {
+                    requested.add(ga);
+                    return ga.getGroupId().equals("org.hibernate")
+                            ? Arrays.asList("5.3.7.Final-redhat-00001", "5.3.7.Final-redhat-00002")
+                            : Collections.emptyList();
+                });
+
+        assertThat(translationMap).containsOnlyKeys(hibernate1);
+        assertThat(translationMap.get(hibernate1)).isEqualTo("5.3.7.Final-redhat-00002");
+        assertThat(requested).hasSize(2);
+    }
+}
@@ -0,0 +1,68 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.gradle.api.artifacts.Configuration;
+import org.junit.Test;
+
+public class LockedVersionsTest {
+
+    private static final ProjectRef UNDERTOW = new SimpleProjectRef("io.undertow", "undertow-core");
+
+    private static final ProjectRef COMMONS_LANG = new SimpleProjectRef("org.apache.commons", "commons-lang3");
+
+    @Test
+    public void versionLockedByTheConfigurationShouldWin() {
+        final Map<String, Map<ProjectRef, String>> locks = new HashMap<>();
+        locks.put("compileClasspath", Collections.singletonMap(UNDERTOW, "2.0.21.Final"));
+        locks.put("runtimeClasspath", Collections.singletonMap(UNDERTOW, "2.0.19.Final"));
+        final LockedVersions sut = new LockedVersions(locks);
+
+        assertThat(sut.get(configuration("runtimeClasspath"), UNDERTOW)).isEqualTo("2.0.19.Final");
+        assertThat(sut.get(configuration("compileClasspath"), UNDERTOW)).isEqualTo("2.0.21.Final");
+    }
+
+    @Test
+    public void versionLockedByAnExtendedConfigurationShouldBeUsed() {
+        final Map<String, Map<ProjectRef, String>> locks = new HashMap<>();
+        locks.put("compileClasspath", Collections.singletonMap(UNDERTOW, "2.0.21.Final"));
+        locks.put("runtime", Collections.singletonMap(UNDERTOW, "2.0.19.Final"));
+        final LockedVersions sut = new LockedVersions(locks);
+
+        assertThat(sut.get(configuration("testRuntime", "runtime"), UNDERTOW)).isEqualTo("2.0.19.Final");
+    }
+
+    @Test
+    public void versionLockedByAnyConfigurationShouldBeUsedOtherwise() {
+        final Map<String, Map<ProjectRef, String>> locks = new HashMap<>();
+        locks.put("runtimeClasspath", Collections.singletonMap(UNDERTOW, "2.0.19.Final"));
+        locks.put("compileClasspath", Collections.singletonMap(UNDERTOW, "2.0.21.Final"));
+        final LockedVersions sut = new LockedVersions(locks);
+
+        // the lockfiles are considered in name order
+        assertThat(sut.get(configuration("testRuntimeClasspath"), UNDERTOW)).isEqualTo("2.0.21.Final");
+        assertThat(sut.get(configuration("testRuntimeClasspath"), COMMONS_LANG)).isNull();
+    }
+
+    private static Configuration configuration(String... hierarchy) {
+        final Set<Configuration> configurations = new LinkedHashSet<>();
+        for (String name : hierarchy) {
+            final Configuration configuration = mock(Configuration.class);
+            when(configuration.getName()).thenReturn(name);
+            configurations.add(configuration);
+        }
+        final Configuration result = configurations.iterator().next();
+        when(result.getHierarchy()).thenReturn(configurations);
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+public class LookupResponseParserTest {
+
+    @Test
+    public void bestMatchVersionsAreAddedToTranslationMap() throws IOException {
+        final Map<ProjectVersionRef, String> translationMap = new HashMap<>();
+
+        try (InputStream response = LookupResponseParserTest.class.getClassLoader()
+                .getResourceAsStream("sample-da-response.json")) {
+            LookupResponseParser.parse(response, translationMap);
+        }
+
+        assertThat(translationMap).containsOnly(
+                entry("org.hibernate", "hibernate-core", "5.3.7.Final", "5.3.7.Final-redhat-00001"),
+                entry("io.undertow", "undertow-core", "2.0.15.Final", "2.0.15.Final-redhat-00001"));
+    }
+
+    @Test
+    public void emptyResponseAddsNothing() throws IOException {
+        final Map<ProjectVersionRef, String> translationMap = new HashMap<>();
+
+        LookupResponseParser.parse(stream("[]"), translationMap);
+
+        assertThat(translationMap).isEmpty();
+    }
+
+    @Test
+    public void fieldsMayComeInAnyOrder() throws IOException {
+        final Map<ProjectVersionRef, String> translationMap = new HashMap<>();
+
+        LookupResponseParser.parse(stream("[{\"bestMatchVersion\":\"1.0-redhat-00001\",\"version\":\"1.0\","
+                + "\"artifactId\":\"dependency1\",\"groupId\":\"org.acme\"}]"), translationMap);
+
+        assertThat(translationMap).containsOnly(entry("org.acme", "dependency1", "1.0", "1.0-redhat-00001"));
+    }
+
+    @Test
+    public void incompleteGavsAreSkipped() throws IOException {
+        final Map<ProjectVersionRef, String> translationMap = new HashMap<>();
+
+        LookupResponseParser.parse(stream("[{\"bestMatchVersion\":\"1.0-redhat-00001\",\"version\":\"1.0\"},"
+                + "{\"groupId\":\"org.acme\",\"artifactId\":null,\"version\":\"1.0\","
+                + "\"bestMatchVersion\":\"1.0-redhat-00001\"},"
+                + "{\"groupId\":\"org.acme\",\"artifactId\":\"dependency2\",\"version\":\"2.0\","
+                + "\"bestMatchVersion\":\"2.0-redhat-00001\"}]"), translationMap);
+
+        assertThat(translationMap).containsOnly(entry("org.acme", "dependency2", "2.0", "2.0-redhat-00001"));
+    }
+
+    @Test
+    public void unexpectedResponseIsRejected() {
+        assertThatThrownBy(() -> LookupResponseParser.parse(stream("{\"error\":\"oops\"}"), new HashMap<>()))
+                .isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> LookupResponseParser.parse(stream("[\"oops\"]"), new HashMap<>()))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    private static Map.Entry<ProjectVersionRef, String> entry(String groupId, String artifactId, String version,
+            String bestMatchVersion) {
+        return new HashMap.SimpleEntry<>(withGAV(groupId, artifactId, version), bestMatchVersion);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,147 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+
+public class MultiEndpointTranslatorWiremockTest {
+
+    private static final String LOOKUP = "/da/rest/v-1/reports/lookup/gavs";
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+
+    @Rule
+    public WireMockRule first = new WireMockRule(8089);
+
+    @Rule
+    public WireMockRule second = new WireMockRule(8090);
+
+    @Test
+    public void failedChunksFailOverToAnotherEndpoint() throws Exception {
+        first.stubFor(post(urlEqualTo(LOOKUP)).willReturn(aResponse().withStatus(503)));
+        second.stubFor(post(urlEqualTo(LOOKUP)).willReturn(sampleResponse()));
+
+        final Map<ProjectVersionRef, String> result = newTranslator(1, 0)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+
+        assertThat(result)
+                .containsEntry(HIBERNATE, "5.3.7.Final-redhat-00001")
+                .containsEntry(UNDERTOW, "2.0.15.Final-redhat-00001");
+        // the first endpoint is avoided once it has failed
+        first.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+        second.verify(2, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    @Test
+    public void chunkSizesAreAdaptedPerEndpoint() throws Exception {
+        first.stubFor(post(urlEqualTo(LOOKUP)).willReturn(aResponse().withStatus(503)));
+        second.stubFor(post(urlEqualTo(LOOKUP)).willReturn(sampleResponse()));
+        final Map<String, AdaptiveChunkSizer> sizers = new HashMap<>();
+
+        new ConcurrentTranslator(
+                Arrays.asList("http://localhost:8089/da/rest/v-1", "http://localhost:8090/da/rest/v-1"),
+                0, 1, 1, null, "redhat", () -> "test",
+                url -> sizers.computeIfAbsent(url, u -> new AdaptiveChunkSizer(null, 2, 1, 8, 10000)), false, 0)
+                        .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+
+        // the chunk of 2 GAVs failed on the first endpoint and succeeded on the second one
+        assertThat(sizers.get("http://localhost:8089/da/rest/v-1").getSize()).isEqualTo(1);
+        assertThat(sizers.get("http://localhost:8090/da/rest/v-1").getSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void translationsOfUnparsableResponsesAreDropped() throws Exception {
+        // the first GAV can be parsed before the response turns out to be truncated
+        first.stubFor(post(urlEqualTo(LOOKUP)).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json;charset=utf-8")
+                .withBody("[{\"groupId\":\"org.acme\",\"artifactId\":\"dependency1\",\"version\":\"1.0\","
+                        + "\"bestMatchVersion\":\"1.0-redhat-00001\"},{\"groupId\":")));
+        second.stubFor(post(urlEqualTo(LOOKUP)).willReturn(sampleResponse()));
+
+        final Map<ProjectVersionRef, String> result = newTranslator(2, 0)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+
+        assertThat(result).containsOnlyKeys(HIBERNATE, UNDERTOW);
+        first.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    @Test
+    public void connectionErrorsFailOverToAnotherEndpoint() throws Exception {
+        first.stubFor(post(urlEqualTo(LOOKUP)).willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+        second.stubFor(post(urlEqualTo(LOOKUP)).willReturn(sampleResponse()));
+
+        final Map<ProjectVersionRef, String> result = newTranslator(2, 0)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+
+        assertThat(result).containsKeys(HIBERNATE, UNDERTOW);
+        second.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    @Test
+    public void chunksAreRoutedToTheFastestEndpoint() throws Exception {
+        first.stubFor(post(urlEqualTo(LOOKUP)).willReturn(sampleResponse().withFixedDelay(500)));
+        second.stubFor(post(urlEqualTo(LOOKUP)).willReturn(sampleResponse()));
+
+        newTranslator(1, 0).translateVersions(Arrays.asList(HIBERNATE, UNDERTOW,
+                withGAV("org.acme", "dependency1", "1.0"), withGAV("org.acme", "dependency2", "1.0")));
+
+        // each endpoint is tried once, then the fastest one is used
+        first.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+        second.verify(3, postRequestedFor(urlEqualTo(LOOKUP)));
+    }
+
+    @Test
+    public void slowChunksAreHedged() throws Exception {
+        first.stubFor(post(urlEqualTo(LOOKUP)).willReturn(sampleResponse().withFixedDelay(5000)));
+        second.stubFor(post(urlEqualTo(LOOKUP)).willReturn(sampleResponse()));
+
+        final long start = System.currentTimeMillis();
+        final Map<ProjectVersionRef, String> result = newTranslator(2, 200)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW));
+        final long duration = System.currentTimeMillis() - start;
+
+        assertThat(result).containsKeys(HIBERNATE, UNDERTOW);
+        first.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+        second.verify(1, postRequestedFor(urlEqualTo(LOOKUP)));
+        assertThat(duration).isLessThan(3000);
+    }
+
+    private ConcurrentTranslator newTranslator(int chunkSize, long hedgeDelay) {
+        return new ConcurrentTranslator(
+                Arrays.asList("http://localhost:8089/da/rest/v-1", "http://localhost:8090/da/rest/v-1"),
+                chunkSize, 1, 1, null, "redhat", () -> "test", null, false, hedgeDelay);
+    }
+
+    private ResponseDefinitionBuilder sampleResponse() throws URISyntaxException, IOException {
+        return aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json;charset=utf-8")
+                .withBody(FileUtils.readFileToString(
+                        Paths.get(MultiEndpointTranslatorWiremockTest.class.getClassLoader()
+                                .getResource("sample-da-response.json").toURI()).toFile(),
+                        StandardCharsets.UTF_8.name()));
+    }
+}
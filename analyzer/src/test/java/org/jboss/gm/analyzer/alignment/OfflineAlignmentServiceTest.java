@@ -0,0 +1,72 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestRule;
+
+public class OfflineAlignmentServiceTest {
+
+    private static final ProjectVersionRef PROJECT = withGAV("org.acme", "acme", "1.0.0");
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+    private static final ProjectVersionRef MOCKITO = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    @Rule
+    public final TestRule restoreSystemProperties = new RestoreSystemProperties();
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void exportedTranslationsShouldAlignOffline() throws Exception {
+        final File snapshotFile = new File(tempDir.getRoot(), "snapshot.bin");
+        final Map<ProjectVersionRef, String> first = new HashMap<>();
+        first.put(PROJECT, "1.0.0.redhat-00001");
+        first.put(HIBERNATE, "5.3.7.Final-redhat-00001");
+        final Map<ProjectVersionRef, String> second = new HashMap<>();
+        second.put(PROJECT, "1.0.0.redhat-00002");
+        second.put(UNDERTOW, "2.0.15.Final-redhat-00003");
+        OfflineAlignmentService.exportTranslations(snapshotFile, first);
+        OfflineAlignmentService.exportTranslations(snapshotFile, second);
+
+        System.setProperty("alignmentSnapshot", snapshotFile.getAbsolutePath());
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+        final AlignmentService.Response response = new OfflineAlignmentService(configuration).align(
+                new AlignmentService.Request(Collections.singletonList(PROJECT),
+                        Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO)));
+
+        assertThat(response.getNewProjectVersion()).isEqualTo("1.0.0.redhat-00002");
+        assertThat(response.getAlignedVersionOfGav(HIBERNATE)).isEqualTo("5.3.7.Final-redhat-00001");
+        assertThat(response.getAlignedVersionOfGav(UNDERTOW)).isEqualTo("2.0.15.Final-redhat-00003");
+        assertThat(response.getAlignedVersionOfGav(MOCKITO)).isNull();
+    }
+
+    @Test
+    public void versionsOfOtherBaseVersionsShouldBeIgnored() throws Exception {
+        final File snapshotFile = new File(tempDir.getRoot(), "snapshot.bin");
+        final Map<ProjectVersionRef, String> translations = new HashMap<>();
+        translations.put(withGAV("org.hibernate", "hibernate-core", "5.3.6.Final"), "5.3.6.Final-redhat-00004");
+        OfflineAlignmentService.exportTranslations(snapshotFile, translations);
+
+        System.setProperty("alignmentSnapshot", snapshotFile.getAbsolutePath());
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+        final AlignmentService.Response response = new OfflineAlignmentService(configuration).align(
+                new AlignmentService.Request(Collections.singletonList(PROJECT), Collections.singletonList(HIBERNATE)));
+
+        assertThat(response.getTranslationMap()).isEmpty();
+    }
+}
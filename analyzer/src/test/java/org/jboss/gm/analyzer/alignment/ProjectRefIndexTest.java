@@ -0,0 +1,80 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.junit.Test;
+
+public class ProjectRefIndexTest {
+
+    private static final ProjectRef HIBERNATE_CORE = new SimpleProjectRef("org.hibernate", "hibernate-core");
+
+    @Test
+    public void firstMatchingPatternShouldWin() {
+        final Map<ProjectRef, String> entries = new LinkedHashMap<>();
+        entries.put(new SimpleProjectRef("org.hibernate", "*"), "group");
+        entries.put(new SimpleProjectRef("org.hibernate", "hibernate-core"), "exact");
+        entries.put(new SimpleProjectRef("org.*", "*"), "prefix");
+        entries.put(new SimpleProjectRef("io.undertow", "undertow-core"), "undertow");
+
+        final ProjectRefIndex<String> index = new ProjectRefIndex<>(entries);
+
+        assertThat(index.get(HIBERNATE_CORE)).isEqualTo("group");
+        assertThat(index.get(new SimpleProjectRef("org.mockito", "mockito-core"))).isEqualTo("prefix");
+        assertThat(index.get(new SimpleProjectRef("io.undertow", "undertow-core"))).isEqualTo("undertow");
+        assertThat(index.matches(new SimpleProjectRef("io.undertow", "undertow-servlet"))).isFalse();
+    }
+
+    @Test
+    public void earlierWildcardPatternShouldWinOverExactMatch() {
+        final Map<ProjectRef, String> entries = new LinkedHashMap<>();
+        entries.put(new SimpleProjectRef("org.hiber*", "*-core"), "wildcard");
+        entries.put(new SimpleProjectRef("org.hibernate", "hibernate-core"), "exact");
+
+        final ProjectRefIndex<String> index = new ProjectRefIndex<>(entries);
+
+        assertThat(index.get(HIBERNATE_CORE)).isEqualTo("wildcard");
+        assertThat(index.get(new SimpleProjectRef("org.hibernate", "hibernate-envers"))).isNull();
+    }
+
+    @Test
+    public void indexShouldAgreeWithLinearScan() {
+        final Map<ProjectRef, String> entries = new LinkedHashMap<>();
+        final List<String> groups = Arrays.asList("org.acme", "org.acme.sub", "com.example", "org.acme-tools");
+        for (int i = 0; i < 40; i++) {
+            final String group = groups.get(i % groups.size());
+            final ProjectRef pattern;
+            switch (i % 4) {
+                case 0:
+                    pattern = new SimpleProjectRef(group, "*");
+                    break;
+                case 1:
+                    pattern = new SimpleProjectRef(group + "*", "artifact" + (i % 7));
+                    break;
+                default:
+                    pattern = new SimpleProjectRef(group, "artifact" + (i % 9));
+                    break;
+            }
+            entries.putIfAbsent(pattern, String.valueOf(i));
+        }
+        final ProjectRefIndex<String> index = new ProjectRefIndex<>(entries);
+
+        for (String group : groups) {
+            for (int i = 0; i < 10; i++) {
+                final ProjectRef ga = new SimpleProjectRef(group, "artifact" + i);
+                final String expected = entries.entrySet().stream()
+                        .filter(e -> e.getKey().matches(ga))
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElse(null);
+                assertThat(index.get(ga)).as(ga.toString()).isEqualTo(expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
+import org.junit.Test;
+
+public class ResolutionResultEngineTest {
+
+    @Test
+    public void unresolvableTransitiveDependenciesShouldBeReported() {
+        final ModuleVersionIdentifier undertow = mock(ModuleVersionIdentifier.class);
+        final ResolvedComponentResult undertowComponent = mock(ResolvedComponentResult.class);
+        when(undertowComponent.getId()).thenReturn(mock(ModuleComponentIdentifier.class));
+        when(undertowComponent.getModuleVersion()).thenReturn(undertow);
+        final ResolvedDependencyResult undertowDependency = mock(ResolvedDependencyResult.class);
+        when(undertowDependency.getSelected()).thenReturn(undertowComponent);
+
+        // a dependency of undertow, which isn't declared by the configuration
+        final ModuleComponentSelector xnio = mock(ModuleComponentSelector.class);
+        when(xnio.getDisplayName()).thenReturn("org.jboss.xnio:xnio-api:3.3.8.Final");
+        final UnresolvedDependencyResult xnioDependency = mock(UnresolvedDependencyResult.class);
+        when(xnioDependency.getAttempted()).thenReturn(xnio);
+        final Throwable failure = new RuntimeException("Could not find org.jboss.xnio:xnio-api:3.3.8.Final");
+        when(xnioDependency.getFailure()).thenReturn(failure);
+
+        final ResolvedComponentResult root = mock(ResolvedComponentResult.class);
+        doReturn(Collections.singleton(undertowDependency)).when(root).getDependencies();
+        final ResolutionResult resolutionResult = mock(ResolutionResult.class);
+        when(resolutionResult.getRoot()).thenReturn(root);
+        doReturn(new LinkedHashSet<>(Arrays.asList(undertowDependency, xnioDependency))).when(resolutionResult)
+                .getAllDependencies();
+        final Configuration configuration = mock(Configuration.class, RETURNS_DEEP_STUBS);
+        when(configuration.copyRecursive().getIncoming().getResolutionResult()).thenReturn(resolutionResult);
+
+        final DependencyResolutionEngine.Result result = new ResolutionResultEngine().resolve(configuration,
+                new DeclaredDependencies(Collections.emptyList()));
+
+        assertThat(result.getResolved()).containsExactly(undertow);
+        assertThat(result.getUnresolved()).containsOnlyKeys("org.jboss.xnio:xnio-api:3.3.8.Final")
+                .containsValue(failure);
+    }
+}
@@ -0,0 +1,86 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TestRule;
+
+public class SuffixedDependencyExclusionCustomizerTest {
+
+    @Rule
+    public final TestRule restoreSystemProperties = new RestoreSystemProperties();
+
+    @Test
+    public void ensureSuffixedDependenciesAreSkipped() {
+        final ProjectVersionRef project = withGAV("org.acme", "dummy", "1.0.0.redhat-00002");
+        final ProjectVersionRef hibernateGav = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final-redhat-00001");
+        final ProjectVersionRef undertowGav = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+        final ProjectVersionRef commonsGav = withGAV("commons-io", "commons-io", "2.6.0.redhat-3");
+        final ProjectVersionRef mockitoGav = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+        final SuffixedDependencyExclusionCustomizer sut = new SuffixedDependencyExclusionCustomizer("redhat", null);
+
+        final AlignmentService.Request customizedReq = sut.customize(new AlignmentService.Request(
+                Collections.singletonList(project),
+                Arrays.asList(hibernateGav, undertowGav, commonsGav, mockitoGav)));
+
+        assertThat(customizedReq.getProject()).containsExactly(project);
+        assertThat(customizedReq.getDependencies()).containsExactly(undertowGav, mockitoGav);
+        assertThat(sut.getSkipped()).isEqualTo(2);
+    }
+
+    @Test
+    public void ensureSuffixRulesAreApplied() {
+        final SuffixedDependencyExclusionCustomizer sut = new SuffixedDependencyExclusionCustomizer("redhat", "temporary");
+
+        assertThat(sut.isSuffixed("1.0.0.redhat-00001")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0-redhat-1")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.Final-redhat-00001")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.temporary")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0")).isFalse();
+        assertThat(sut.isSuffixed("1.0.0.redhat")).isFalse();
+        assertThat(sut.isSuffixed("1.0.0-redhatter-1")).isFalse();
+        assertThat(sut.isSuffixed("redhat-1")).isFalse();
+        assertThat(sut.isSuffixed(null)).isFalse();
+    }
+
+    @Test
+    public void ensureSuffixesAreMatchedRegardlessOfCase() {
+        final SuffixedDependencyExclusionCustomizer sut = new SuffixedDependencyExclusionCustomizer("redhat", "temporary");
+
+        assertThat(sut.isSuffixed("1.0.0.RedHat-00001")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.Final-REDHAT-1")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.Temporary")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.RedHatter-1")).isFalse();
+    }
+
+    @Test
+    public void ensureOsgiNormalizedVersionsAreSkipped() {
+        final SuffixedDependencyExclusionCustomizer sut = new SuffixedDependencyExclusionCustomizer("redhat", "temporary");
+
+        assertThat(sut.isSuffixed("1.0.0.redhat_00001")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.Final_redhat_00001")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.Final-redhat00001")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.Final_temporary")).isTrue();
+        assertThat(sut.isSuffixed("1.0.0.Final_redhat")).isFalse();
+    }
+
+    @Test
+    public void ensureCustomizerIsOnlyCreatedWhenEnabled() {
+        assertThat(SuffixedDependencyExclusionCustomizer.fromConfiguration(ConfigFactory.create(Configuration.class)))
+                .isSameAs(AlignmentService.RequestCustomizer.NOOP);
+
+        System.setProperty("skipSuffixedDependencies", "true");
+        assertThat(SuffixedDependencyExclusionCustomizer.fromConfiguration(ConfigFactory.create(Configuration.class)))
+                .isInstanceOf(SuffixedDependencyExclusionCustomizer.class);
+    }
+}
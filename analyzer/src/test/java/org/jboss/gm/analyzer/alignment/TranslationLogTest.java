@@ -0,0 +1,120 @@
+package org.jboss.gm.analyzer.alignment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.jboss.gm.common.versioning.ProjectVersionFactory.withGAV;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.commonjava.maven.ext.io.rest.Translator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TranslationLogTest {
+
+    private static final ProjectVersionRef HIBERNATE = withGAV("org.hibernate", "hibernate-core", "5.3.7.Final");
+    private static final ProjectVersionRef UNDERTOW = withGAV("io.undertow", "undertow-core", "2.0.15.Final");
+    private static final ProjectVersionRef MOCKITO = withGAV("org.mockito", "mockito-core", "2.27.0");
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private final List<List<ProjectVersionRef>> requests = new ArrayList<>();
+
+    @Test
+    public void identicalRequestsShouldBeReplayed() {
+        final File logFile = new File(tempDir.getRoot(), "log/da.log");
+        final Translator recording = TranslationLog.recording(this::translate, logFile);
+        final Map<ProjectVersionRef, String> first = recording.translateVersions(Arrays.asList(HIBERNATE, MOCKITO));
+        final Map<ProjectVersionRef, String> second = recording.translateVersions(Collections.singletonList(UNDERTOW));
+
+        final Translator replaying = TranslationLog.replaying(logFile);
+
+        assertThat(replaying.translateVersions(Arrays.asList(MOCKITO, HIBERNATE))).isEqualTo(first);
+        assertThat(replaying.translateVersions(Collections.singletonList(UNDERTOW))).isEqualTo(second);
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    public void differentlyChunkedRequestsShouldBeReplayedGavByGav() {
+        final File logFile = new File(tempDir.getRoot(), "da.log");
+        final Translator recording = TranslationLog.recording(this::translate, logFile);
+        recording.translateVersions(Arrays.asList(HIBERNATE, MOCKITO));
+        recording.translateVersions(Collections.singletonList(UNDERTOW));
+
+        final Map<ProjectVersionRef, String> replayed = TranslationLog.replaying(logFile)
+                .translateVersions(Arrays.asList(HIBERNATE, UNDERTOW, MOCKITO));
+
+        assertThat(replayed).containsOnlyKeys(HIBERNATE, UNDERTOW);
+        assertThat(replayed.get(UNDERTOW)).isEqualTo("2.0.15.Final-redhat-00001");
+    }
+
+    @Test
+    public void unrecordedGavsShouldFail() {
+        final File logFile = new File(tempDir.getRoot(), "da.log");
+        TranslationLog.recording(this::translate, logFile).translateVersions(Collections.singletonList(HIBERNATE));
+
+        assertThatThrownBy(() -> TranslationLog.replaying(logFile).translateVersions(Arrays.asList(HIBERNATE, UNDERTOW)))
+                .isInstanceOf(ManipulationUncheckedException.class)
+                .hasMessageContaining("undertow-core");
+    }
+
+    @Test
+    public void truncatedRecordShouldBeIgnored() throws Exception {
+        final File logFile = new File(tempDir.getRoot(), "da.log");
+        TranslationLog.recording(this::translate, logFile).translateVersions(Collections.singletonList(HIBERNATE));
+        try (OutputStream out = new FileOutputStream(logFile, true)) {
+            out.write(TranslationLog.hash(Collections.singletonList(UNDERTOW)));
+            out.write(new byte[] { 0, 0, 1, 0, 42 });
+        }
+
+        final Translator replaying = TranslationLog.replaying(logFile);
+
+        assertThat(replaying.translateVersions(Collections.singletonList(HIBERNATE))).containsOnlyKeys(HIBERNATE);
+        assertThatThrownBy(() -> replaying.translateVersions(Collections.singletonList(UNDERTOW)))
+                .isInstanceOf(ManipulationUncheckedException.class);
+    }
+
+    @Test
+    public void logTruncatedAnywhereInLastRecordShouldBeReplayed() throws Exception {
+        final File logFile = new File(tempDir.getRoot(), "da.log");
+        final Translator recording = TranslationLog.recording(this::translate, logFile);
+        recording.translateVersions(Collections.singletonList(HIBERNATE));
+        final int firstRecordSize = (int) logFile.length();
+        recording.translateVersions(Collections.singletonList(UNDERTOW));
+        final byte[] log = Files.readAllBytes(logFile.toPath());
+
+        // Within the hash, the length and the payload of the last record
+        for (int size = firstRecordSize + 1; size < log.length; size++) {
+            final File truncated = new File(tempDir.getRoot(), "truncated-" + size + ".log");
+            Files.write(truncated.toPath(), Arrays.copyOf(log, size));
+
+            final Translator replaying = TranslationLog.replaying(truncated);
+
+            assertThat(replaying.translateVersions(Collections.singletonList(HIBERNATE))).containsOnlyKeys(HIBERNATE);
+            assertThatThrownBy(() -> replaying.translateVersions(Collections.singletonList(UNDERTOW)))
+                    .isInstanceOf(ManipulationUncheckedException.class);
+        }
+    }
+
+    private Map<ProjectVersionRef, String> translate(List<ProjectVersionRef> gavs) {
+        requests.add(gavs);
+        final Map<ProjectVersionRef, String> result = new HashMap<>();
+        gavs.stream()
+                .filter(gav -> !gav.getGroupId().equals("org.mockito"))
+                .forEach(gav -> result.put(gav, gav.getVersionString() + "-redhat-00001"));
+        return result;
+    }
+}
@@ -3,6 +3,8 @@ package org.jboss.gm.analyzer.alignment;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
@@ -17,6 +19,7 @@ import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
 import org.gradle.api.Project;
 import org.gradle.testfixtures.ProjectBuilder;
+import org.jboss.gm.analyzer.alignment.UpdateProjectVersionCustomizer.ProjectVersionCustomizerResponse;
 import org.jboss.gm.common.Configuration;
 import org.jboss.gm.common.ManipulationCache;
 import org.junit.Rule;
@@ -156,4 +159,39 @@ public class UpdateProjectVersionCustomizerTest {
             assertThat(r.getNewProjectVersion()).isEqualTo("1.1.0.redhat-00002");
         });
     }
+
+    @Test
+    public void ensureProjectVersionIsOnlyCalculatedOnce() throws IOException {
+
+        final ProjectVersionRef pvr = SimpleProjectVersionRef.parse("org:dummy:1.1.0.redhat-00001");
+
+        final AlignmentService.Response originalResp = mock(AlignmentService.Response.class);
+        when(originalResp.getTranslationMap()).thenAnswer((Answer<Map<ProjectVersionRef, String>>) invocation -> {
+            Map<ProjectVersionRef, String> result = new HashMap<>();
+            result.put(pvr, pvr.getVersionString());
+            return result;
+        });
+
+        final File simpleProjectRoot = tempDir.newFolder("simple-project");
+        System.setProperty("ignoreUnresolvableDependencies", "true");
+        Project p = ProjectBuilder.builder().withProjectDir(simpleProjectRoot).build();
+        p.setVersion(pvr.getVersionString());
+        p.setGroup("org");
+        final Set<Project> projects = new HashSet<>();
+        projects.add(p);
+
+        ManipulationCache cache = ManipulationCache.getCache(p);
+        cache.addGAV(pvr);
+
+        final Configuration configuration = ConfigFactory.create(Configuration.class);
+        final UpdateProjectVersionCustomizer sut = new UpdateProjectVersionCustomizer(projects, configuration);
+        final ProjectVersionCustomizerResponse customizedReq = (ProjectVersionCustomizerResponse) sut
+                .customize(originalResp);
+
+        assertThat(customizedReq.getVersionCalculationTime()).isEqualTo(-1);
+        assertThat(customizedReq.getNewProjectVersion()).isEqualTo("1.1.0.redhat-00002");
+        assertThat(customizedReq.getVersionCalculationTime()).isGreaterThanOrEqualTo(0);
+        assertThat(customizedReq.getNewProjectVersion()).isEqualTo("1.1.0.redhat-00002");
+        verify(originalResp, times(1)).getTranslationMap();
+    }
 }
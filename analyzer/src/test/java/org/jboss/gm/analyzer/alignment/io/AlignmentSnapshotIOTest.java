@@ -0,0 +1,75 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
+import org.commonjava.maven.ext.common.ManipulationUncheckedException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AlignmentSnapshotIOTest {
+
+    private static final ProjectRef HIBERNATE = new SimpleProjectRef("org.hibernate", "hibernate-core");
+    private static final ProjectRef UNDERTOW = new SimpleProjectRef("io.undertow", "undertow-core");
+    private static final ProjectRef UNDERTOW_SERVLET = new SimpleProjectRef("io.undertow", "undertow-servlet");
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void versionsShouldBeFoundAfterRoundTrip() throws Exception {
+        final File snapshotFile = tempDir.newFile("snapshot.bin");
+        final Map<ProjectRef, List<String>> versions = new HashMap<>();
+        versions.put(HIBERNATE, Arrays.asList("5.3.7.Final-redhat-00001", "5.3.7.Final-redhat-00002"));
+        versions.put(UNDERTOW, Collections.singletonList("2.0.15.Final-redhat-00001"));
+        versions.put(UNDERTOW_SERVLET, Collections.emptyList());
+
+        AlignmentSnapshotIO.writeSnapshot(snapshotFile, versions);
+        final AlignmentSnapshot snapshot = AlignmentSnapshotIO.readSnapshot(snapshotFile);
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.getVersions(HIBERNATE)).containsExactly("5.3.7.Final-redhat-00001", "5.3.7.Final-redhat-00002");
+        assertThat(snapshot.getVersions(UNDERTOW)).containsExactly("2.0.15.Final-redhat-00001");
+        assertThat(snapshot.getVersions(UNDERTOW_SERVLET)).isEmpty();
+        assertThat(snapshot.getVersions(new SimpleProjectRef("org.mockito", "mockito-core"))).isEmpty();
+    }
+
+    @Test
+    public void forEachShouldVisitAllEntriesInOrder() throws Exception {
+        final File snapshotFile = tempDir.newFile("snapshot.bin");
+        final Map<ProjectRef, List<String>> versions = new HashMap<>();
+        versions.put(HIBERNATE, Collections.singletonList("5.3.7.Final-redhat-00001"));
+        versions.put(UNDERTOW_SERVLET, Collections.singletonList("2.0.15.Final-redhat-00001"));
+        versions.put(UNDERTOW, Collections.singletonList("2.0.15.Final-redhat-00001"));
+        AlignmentSnapshotIO.writeSnapshot(snapshotFile, versions);
+
+        final List<ProjectRef> visited = new ArrayList<>();
+        AlignmentSnapshotIO.readSnapshot(snapshotFile).forEach((ga, v) -> {
+            visited.add(ga);
+            assertThat(v).isEqualTo(versions.get(ga));
+        });
+
+        assertThat(visited).containsExactly(UNDERTOW, UNDERTOW_SERVLET, HIBERNATE);
+    }
+
+    @Test
+    public void readingAnotherFileShouldFail() throws Exception {
+        final File file = tempDir.newFile("snapshot.bin");
+        Files.write(file.toPath(), "{ \"not\": \"a snapshot\" }".getBytes());
+
+        assertThatThrownBy(() -> AlignmentSnapshotIO.readSnapshot(file))
+                .isInstanceOf(ManipulationUncheckedException.class);
+    }
+}
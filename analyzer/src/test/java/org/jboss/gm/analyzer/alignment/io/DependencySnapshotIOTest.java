@@ -0,0 +1,55 @@
+package org.jboss.gm.analyzer.alignment.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.jboss.gm.common.versioning.ProjectVersionFactory;
+import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DependencySnapshotIOTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void writtenSnapshotShouldBeReadBack() {
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = new HashMap<>();
+        dependencies.put(new RelaxedProjectVersionRef("org.hibernate", "hibernate-core", "5.3.7.Final"),
+                ProjectVersionFactory.withGAV("org.hibernate", "hibernate-core", "5.3.7.Final"));
+        dependencies.put(new RelaxedProjectVersionRef("io.undertow", "undertow-core", "2.0+"),
+                ProjectVersionFactory.withGAV("io.undertow", "undertow-core", "2.0.21.Final"));
+        dependencies.put(new RelaxedProjectVersionRef("com.google.guava", "guava", null),
+                ProjectVersionFactory.withGAV("com.google.guava", "guava", "27.1-jre"));
+
+        final File snapshot = new File(tempDir.getRoot(), "gme/alignment-dependencies.json");
+        DependencySnapshotIO.writeSnapshot(snapshot, dependencies);
+
+        assertThat(snapshot).exists();
+        assertThat(DependencySnapshotIO.readSnapshot(snapshot)).isEqualTo(dependencies);
+    }
+
+    @Test
+    public void sameDependenciesShouldResultInSameSnapshot() throws IOException {
+        final Map<RelaxedProjectVersionRef, ProjectVersionRef> dependencies = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            dependencies.put(new RelaxedProjectVersionRef("org.acme", "artifact" + i, "1." + i),
+                    ProjectVersionFactory.withGAV("org.acme", "artifact" + i, "1." + i));
+        }
+
+        final File first = tempDir.newFile("first.json");
+        final File second = tempDir.newFile("second.json");
+        DependencySnapshotIO.writeSnapshot(first, dependencies);
+        DependencySnapshotIO.writeSnapshot(second, new HashMap<>(dependencies));
+
+        assertThat(FileUtils.readFileToString(first, "UTF-8")).isEqualTo(FileUtils.readFileToString(second, "UTF-8"));
+    }
+}
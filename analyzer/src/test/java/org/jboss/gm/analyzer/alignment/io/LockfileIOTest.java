@@ -1,16 +1,16 @@
 package org.jboss.gm.analyzer.alignment.io;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.tuple;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
-import java.util.Set;
+import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
-import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
+import org.commonjava.maven.atlas.ident.ref.ProjectRef;
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectRef;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -21,24 +21,45 @@ public class LockfileIOTest {
     public TemporaryFolder tempDir = new TemporaryFolder();
 
     @Test
-    public void readNonExistingFileShouldReturnEmptySet() {
-        assertThat(LockfileIO.allProjectVersionRefsFromLockfiles(Paths.get("/lol"))).isEmpty();
+    public void readNonExistingFileShouldReturnEmptyMap() {
+        assertThat(LockfileIO.lockedVersionsByConfiguration(Paths.get("/lol"))).isEmpty();
     }
 
     @Test
-    public void readValidFileShouldReturnExpectedResults() throws URISyntaxException, IOException {
+    public void readValidFileShouldReturnExpectedIndex() throws URISyntaxException, IOException {
         copyToLockfilesRoot("compileClasspath.lockfile");
         copyToLockfilesRoot("runtimeClasspath.lockfile");
 
-        final Set<ProjectVersionRef> result = LockfileIO.allProjectVersionRefsFromLockfiles(tempDir.getRoot().toPath());
-        assertThat(result)
-                .extracting("artifactId", "versionString")
-                .containsOnly(
-                        tuple("undertow-core", "2.0.21.Final"),
-                        tuple("commons-lang3", "3.8"),
-                        tuple("HdrHistogram", "2.1.10"),
-                        tuple("guava", "25.1-android"),
-                        tuple("xnio-nio", "3.3.8.Final"));
+        final Map<String, Map<ProjectRef, String>> result = LockfileIO
+                .lockedVersionsByConfiguration(tempDir.getRoot().toPath());
+        assertThat(result).containsOnlyKeys("compileClasspath", "runtimeClasspath");
+        assertThat(result.get("compileClasspath"))
+                .hasSize(4)
+                .containsEntry(new SimpleProjectRef("io.undertow", "undertow-core"), "2.0.21.Final")
+                .containsEntry(new SimpleProjectRef("org.apache.commons", "commons-lang3"), "3.8")
+                .containsEntry(new SimpleProjectRef("org.hdrhistogram", "HdrHistogram"), "2.1.10")
+                .containsEntry(new SimpleProjectRef("com.google.guava", "guava"), "25.1-android");
+        assertThat(result.get("runtimeClasspath"))
+                .hasSize(2)
+                .containsEntry(new SimpleProjectRef("io.undertow", "undertow-core"), "2.0.21.Final")
+                .containsEntry(new SimpleProjectRef("org.jboss.xnio", "xnio-nio"), "3.3.8.Final");
+    }
+
+    @Test
+    public void conflictingLocksShouldBeKeptPerConfiguration() throws URISyntaxException, IOException {
+        copyToLockfilesRoot("conflicting-locks/compileClasspath.lockfile", "compileClasspath.lockfile");
+        copyToLockfilesRoot("conflicting-locks/runtimeClasspath.lockfile", "runtimeClasspath.lockfile");
+
+        final Map<String, Map<ProjectRef, String>> result = LockfileIO
+                .lockedVersionsByConfiguration(tempDir.getRoot().toPath());
+        assertThat(result.get("compileClasspath"))
+                .hasSize(2)
+                .containsEntry(new SimpleProjectRef("io.undertow", "undertow-core"), "2.0.21.Final")
+                .containsEntry(new SimpleProjectRef("org.apache.commons", "commons-lang3"), "3.9");
+        assertThat(result.get("runtimeClasspath"))
+                .hasSize(2)
+                .containsEntry(new SimpleProjectRef("io.undertow", "undertow-core"), "2.0.19.Final")
+                .containsEntry(new SimpleProjectRef("org.apache.commons", "commons-lang3"), "3.10");
     }
 
     @Test
@@ -59,8 +80,12 @@ public class LockfileIOTest {
     }
 
     private void copyToLockfilesRoot(String name) throws IOException, URISyntaxException {
+        copyToLockfilesRoot(name, name);
+    }
+
+    private void copyToLockfilesRoot(String resource, String name) throws IOException, URISyntaxException {
         FileUtils.copyFile(
-                Paths.get(LockfileIOTest.class.getClassLoader().getResource(name).toURI()).toFile(),
+                Paths.get(LockfileIOTest.class.getClassLoader().getResource(resource).toURI()).toFile(),
                 tempDir.newFile(name));
     }
 }
@@ -12,6 +12,7 @@ plugins {
     id("net.nemerosa.versioning") version "2.8.2"
     id("com.gradle.plugin-publish") version "0.10.1"
     id("net.researchgate.release") version "2.6.0"
+    id("me.champeau.gradle.jmh") version "0.4.8" apply false
 }
 
 apply(plugin = "net.researchgate.release")
@@ -4,9 +4,9 @@ import static org.aeonbits.owner.Config.LoadType.MERGE;
 import static org.apache.commons.lang.StringUtils.isEmpty;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aeonbits.owner.Accessible;
 import org.aeonbits.owner.Config;
@@ -26,9 +26,10 @@ public interface Configuration extends Accessible {
 
     /**
      * Cache is indexed to object instance : Properties - while in production
-     * usage there should only be one instance, using this allows for easier testing.
+     * usage there should only be one instance, using this allows for easier testing. As alignment tasks might
+     * run in parallel the cache must be safe for concurrent use.
      */
-    Map<Configuration, Properties> properties = new HashMap<>();
+    Map<Configuration, Properties> properties = new ConcurrentHashMap<>();
 
     String DA = "restURL";
 
@@ -46,6 +47,9 @@ public interface Configuration extends Accessible {
         });
     }
 
+    /**
+     * URL of the Dependency Analyzer, or comma separated URLs of several Dependency Analyzer instances.
+     */
     @Key(DA)
     String daEndpoint();
 
@@ -77,6 +81,123 @@ public interface Configuration extends Accessible {
     @DefaultValue("-1")
     int restMaxSize();
 
+    /**
+     * Maximum number of chunks of GAVs sent concurrently to the Dependency Analyzer. With the default value of 1
+     * the chunks are sent one after another. When {@code restMaxSize} isn't set, the GAVs are split in as many
+     * chunks as the concurrent requests.
+     */
+    @Key("restMaxInFlight")
+    @DefaultValue("1")
+    int restMaxInFlight();
+
+    /**
+     * When enabled, the number of GAVs sent in each request to the Dependency Analyzer grows as long as the requests
+     * complete within {@code restChunkLatencyTarget} and shrinks when they time out or fail with a server error.
+     * {@code restMaxSize}, when set, is the upper bound of the size.
+     */
+    @Key("restAdaptiveChunkSize")
+    @DefaultValue("false")
+    boolean restAdaptiveChunkSize();
+
+    /**
+     * Number of milliseconds requests to the Dependency Analyzer should complete within when the chunk size is
+     * adaptive.
+     */
+    @Key("restChunkLatencyTarget")
+    @DefaultValue("10000")
+    long restChunkLatencyTarget();
+
+    /**
+     * Directory where the last good chunk size of each Dependency Analyzer is stored when the chunk size is adaptive.
+     */
+    @Key("restChunkStateDirectory")
+    @DefaultValue("${user.home}/.gradle/gme")
+    String restChunkStateDirectory();
+
+    /**
+     * When enabled, requests to the Dependency Analyzer are compressed with gzip (unless it rejects them) and
+     * compressed responses are accepted.
+     */
+    @Key("restCompression")
+    @DefaultValue("false")
+    boolean restCompression();
+
+    /**
+     * When several Dependency Analyzer instances are configured, the milliseconds after which a request that hasn't
+     * completed is also sent to another instance. Not positive values disable it.
+     */
+    @Key("restHedgeDelay")
+    @DefaultValue("0")
+    long restHedgeDelay();
+
+    /**
+     * When enabled, the dependencies of each project are sent to the Dependency Analyzer in the background as soon as
+     * they have been collected, instead of all at once when the dependencies of every project have been collected.
+     */
+    @Key("restPrefetch")
+    @DefaultValue("false")
+    boolean restPrefetch();
+
+    /**
+     * Path to a log every request sent to the Dependency Analyzer and its response are appended to. The in memory and
+     * persistent caches are not used while recording so that the log holds all the GAVs of the build.
+     */
+    @Key("restRecordLog")
+    String restRecordLog();
+
+    /**
+     * Path to a log written via {@code restRecordLog}. When set, the Dependency Analyzer isn't called and the
+     * responses are read from the log instead. The caches are not used either, and GAVs that are not in the log fail
+     * the alignment.
+     */
+    @Key("restReplayLog")
+    String restReplayLog();
+
+    /**
+     * Maximum number of GAVs whose version returned by the Dependency Analyzer is kept in memory for the lifetime of
+     * the Gradle daemon. The entries expire like the ones of the persistent cache (see {@link #restCacheTtl()} and
+     * {@link #restCacheNegativeTtl()}). Not positive values disable the in memory cache.
+     */
+    @Key("restMemoCacheSize")
+    @DefaultValue("0")
+    int restMemoCacheSize();
+
+    /**
+     * When enabled, the versions kept in memory by previous builds in the Gradle daemon are discarded before the
+     * alignment.
+     */
+    @Key("restMemoCacheClear")
+    @DefaultValue("false")
+    boolean restMemoCacheClear();
+
+    /**
+     * Directory of the persistent cache of the versions returned by the Dependency Analyzer. When set, only the
+     * dependencies that are not in the cache are sent to the Dependency Analyzer. The cache is disabled by default.
+     */
+    @Key("restCacheDirectory")
+    String restCacheDirectory();
+
+    /**
+     * Number of seconds after which a cached aligned version expires.
+     */
+    @Key("restCacheTtl")
+    @DefaultValue("86400")
+    long restCacheTtl();
+
+    /**
+     * Number of seconds after which the cached absence of an aligned version expires.
+     */
+    @Key("restCacheNegativeTtl")
+    @DefaultValue("3600")
+    long restCacheNegativeTtl();
+
+    /**
+     * Maximum number of entries kept in the cache; the oldest entries are evicted first. -1 means unbounded.
+     */
+    @Key("restCacheMaxSize")
+    @DefaultValue("100000")
+    int restCacheMaxSize();
+
     @Key("log-context")
     String logContext();
 
@@ -84,6 +205,72 @@ public interface Configuration extends Accessible {
     @DefaultValue("false")
     boolean ignoreUnresolvableDependencies();
 
+    /**
+     * Number of threads used to resolve the configurations of each project. With the default value of 1
+     * the configurations are resolved one after another.
+     */
+    @Key("dependencyResolutionThreads")
+    @DefaultValue("1")
+    int dependencyResolutionThreads();
+
+    /**
+     * When enabled, the configurations of a project are resolved again one after another if resolving them
+     * concurrently (see {@link #dependencyResolutionThreads()}) fails because of Gradle's project locking.
+     */
+    @Key("dependencyResolutionSerialFallback")
+    @DefaultValue("true")
+    boolean dependencyResolutionSerialFallback();
+
+    /**
+     * Selects how the configurations of each project are resolved. {@code LENIENT} uses the lenient resolved
+     * configuration while {@code RESOLUTION_RESULT} only walks the resolution result graph, which avoids
+     * creating the resolved configuration and its artifact sets.
+     */
+    @Key("dependencyResolutionEngine")
+    @DefaultValue("LENIENT")
+    ResolutionEngine dependencyResolutionEngine();
+
+    /**
+     * When enabled, configurations (of the same or of sibling projects) that declare the same dependencies,
+     * constraints, excludes and resolution strategy are only resolved once.
+     */
+    @Key("dependencyResolutionFingerprinting")
+    @DefaultValue("false")
+    boolean dependencyResolutionFingerprinting();
+
+    /**
+     * When enabled, the external dependencies of all the configurations of a project are resolved together in a
+     * single detached configuration instead of resolving each configuration. Modules declared with different versions
+     * in different configurations are then aligned based on a single resolved version. The configurations of projects
+     * relying on anything else than their dependencies to resolve them (e.g. constraints, platforms, excludes,
+     * substitutions or locks) are still resolved separately.
+     */
+    @Key("dependencyResolutionMerged")
+    @DefaultValue("false")
+    boolean dependencyResolutionMerged();
+
+    /**
+     * When enabled, dependencies whose version already carries the incremental or static version suffix are not
+     * sent to the Dependency Analyzer.
+     */
+    @Key("skipSuffixedDependencies")
+    @DefaultValue("false")
+    boolean skipSuffixedDependencies();
+
+    /**
+     * Path to an alignment snapshot. When set, the aligned versions are looked up in the snapshot instead of being
+     * retrieved from the Dependency Analyzer.
+     */
+    @Key("alignmentSnapshot")
+    String alignmentSnapshot();
+
+    /**
+     * Path to an alignment snapshot the aligned versions of the dependencies retrieved from the Dependency Analyzer are
+     * added to when the build finishes, so that later builds can be aligned offline via {@code alignmentSnapshot}.
+     */
+    @Key("alignmentSnapshotExport")
+    String alignmentSnapshotExport();
+
     @Key("groovyScripts")
     String[] groovyScripts();
 
@@ -106,6 +293,11 @@ public interface Configuration extends Accessible {
     @DefaultValue("repositories-backup.xml")
     String repositoriesFile();
 
+    enum ResolutionEngine {
+        LENIENT,
+        RESOLUTION_RESULT
+    }
+
     class DependencyConverter implements Converter<DependencyPrecedence> {
         /**
          * Converts the given input into an Object of type T.
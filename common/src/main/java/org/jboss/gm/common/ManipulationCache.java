@@ -1,10 +1,11 @@
 package org.jboss.gm.common;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
@@ -15,6 +16,9 @@ import org.jboss.gm.common.versioning.RelaxedProjectVersionRef;
 
 /**
  * Cache that is stored in the root project extensions.
+ * <p>
+ * It is safe to use from alignment tasks of different projects running in parallel.
+ * </p>
  */
 public class ManipulationCache {
 
@@ -23,23 +27,17 @@ public class ManipulationCache {
     /** Root project */
     private Project rootProject;
 
-    /**
-     * Will be built up to contain all the projects that need alignment. The same reference is passed to each task
-     * and is used to make sure that the result of alignment is only written once (by the last alignment task to be performed)
-     */
-    private HashSet<String> projectCounter = new HashSet<>();
-
     private ManipulationModel rootModel;
 
-    private List<ProjectVersionRef> projectVersionRefs = new ArrayList<>();
+    private final List<ProjectVersionRef> projectVersionRefs = new CopyOnWriteArrayList<>();
 
     /**
      * Represents a mapping of project module to a map of the original Dependency (which might be dynamic) to
      * the fully resolved GAV.
      */
-    private HashMap<Project, HashMap<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = new HashMap<>();
+    private final Map<Project, HashMap<RelaxedProjectVersionRef, ProjectVersionRef>> projectDependencies = new ConcurrentHashMap<>();
 
-    private Set<ArtifactRepository> repositories = new HashSet<>();
+    private final Set<ArtifactRepository> repositories = ConcurrentHashMap.newKeySet();
 
     /**
      * Retrieves the cache given any project. It will access the root project, check if the
@@ -71,11 +69,14 @@ public class ManipulationCache {
         }
         ManipulationCache cache;
 
-        if (!project.getRootProject().getExtensions().getExtraProperties().has(NAME_PREFIX)) {
-            cache = new ManipulationCache(project.getRootProject());
-            project.getRootProject().getExtensions().getExtraProperties().set(NAME_PREFIX, cache);
-        } else {
-            cache = (ManipulationCache) project.getRootProject().getExtensions().getExtraProperties().get(NAME_PREFIX);
+        synchronized (project.getRootProject()) {
+            if (!project.getRootProject().getExtensions().getExtraProperties().has(NAME_PREFIX)) {
+                cache = new ManipulationCache(project.getRootProject());
+                project.getRootProject().getExtensions().getExtraProperties().set(NAME_PREFIX, cache);
+            } else {
+                cache = (ManipulationCache) project.getRootProject().getExtensions().getExtraProperties()
+                        .get(NAME_PREFIX);
+            }
         }
         return cache;
     }
@@ -84,26 +85,6 @@ public class ManipulationCache {
         this.rootProject = rootProject;
     }
 
-    /**
-     * Used to track the number of projects/subprojects.
-     *
-     * @param name the project name
-     */
-    public void addProject(String name) {
-        projectCounter.add(name);
-    }
-
-    /**
-     * Tracking projects - remove the named project when it is evaluated.
-     *
-     * @param name the name of the project
-     * @return true if all projects are now handled.
-     */
-    public boolean removeProject(String name) {
-        projectCounter.remove(name);
-        return projectCounter.isEmpty();
-    }
-
     public ManipulationModel getModel() {
         return rootModel;
     }
@@ -112,7 +93,7 @@ public class ManipulationCache {
         projectDependencies.put(project, deps);
     }
 
-    public HashMap<Project, HashMap<RelaxedProjectVersionRef, ProjectVersionRef>> getDependencies() {
+    public Map<Project, HashMap<RelaxedProjectVersionRef, ProjectVersionRef>> getDependencies() {
         return projectDependencies;
     }
 
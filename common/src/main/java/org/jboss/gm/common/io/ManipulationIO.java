@@ -20,7 +20,8 @@ public final class ManipulationIO {
 
     /**
      * This is meant to be called from as part of a Gradle task that is executed for each project/subproject of the build
-     * Is assumes that a task for various projects is never called in parallel
+     * It might be called by tasks of various projects in parallel ; this is safe as the model is only written once,
+     * after the tasks of all projects have completed.
      *
      * @return a valid ManipulationModel.
      */
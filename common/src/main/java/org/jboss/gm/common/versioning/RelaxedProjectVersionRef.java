@@ -12,6 +12,7 @@ import org.commonjava.maven.atlas.ident.version.SingleVersion;
 import org.commonjava.maven.atlas.ident.version.VersionSpec;
 import org.commonjava.maven.ext.common.ManipulationUncheckedException;
 import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ResolvedDependency;
 
 /**
@@ -31,7 +32,7 @@ public class RelaxedProjectVersionRef
     private ProjectVersionRef projectVersionRefDelegate;
     private ProjectRef projectRefDelegate;
 
-    private RelaxedProjectVersionRef(final String groupId, final String artifactId, final String versionString) {
+    public RelaxedProjectVersionRef(final String groupId, final String artifactId, final String versionString) {
         if (StringUtils.isEmpty(versionString)) {
             projectRefDelegate = new SimpleProjectRef(groupId, artifactId);
         } else {
@@ -43,6 +44,10 @@ public class RelaxedProjectVersionRef
         this(dependency.getModuleGroup(), dependency.getModuleName(), dependency.getModuleVersion());
     }
 
+    public RelaxedProjectVersionRef(ModuleVersionIdentifier moduleVersionIdentifier) {
+        this(moduleVersionIdentifier.getGroup(), moduleVersionIdentifier.getName(), moduleVersionIdentifier.getVersion());
+    }
+
     public RelaxedProjectVersionRef(Dependency dependency) {
         this(dependency.getGroup(), dependency.getName(), dependency.getVersion());
     }
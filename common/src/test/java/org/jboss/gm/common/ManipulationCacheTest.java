@@ -0,0 +1,53 @@
+package org.jboss.gm.common;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.commonjava.maven.atlas.ident.ref.SimpleProjectVersionRef;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ManipulationCacheTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void verifyProjectsCanBeCollectedInParallel() throws Exception {
+        final Project root = ProjectBuilder.builder().withProjectDir(tempDir.newFolder()).build();
+        final List<Project> projects = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            projects.add(ProjectBuilder.builder().withName("project" + i).withParent(root).build());
+        }
+        final ManipulationCache cache = ManipulationCache.getCache(root);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for (Project project : projects) {
+                results.add(executor.submit(() -> {
+                    final ManipulationCache projectCache = ManipulationCache.getCache(project);
+                    projectCache.addDependencies(project, new HashMap<>());
+                    projectCache.addGAV(new SimpleProjectVersionRef("org", project.getName(), "1.0"));
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(projects.size(), cache.getDependencies().size());
+        assertEquals(projects.size(), cache.getGAV().size());
+    }
+}